@@ -0,0 +1,58 @@
+package com.opt.githubSearchRepo.benchmarks;
+
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import com.opt.githubSearchRepo.service.CacheSerializer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    @Param({"json", "smile"})
+    private String codec;
+
+    @Param({"0", "4096"})
+    private int compressionThreshold;
+
+    @Param({"10", "100"})
+    private int repositories;
+
+    private CacheSerializer serializer;
+    private List<RepositoryInfo> values;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        serializer = new CacheSerializer(new SimpleMeterRegistry(), codec, compressionThreshold);
+        values = Payloads.repositoryInfos("octocat", repositories, 10);
+        encoded = serializer.serialize(values);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return serializer.serialize(values);
+    }
+
+    @Benchmark
+    public List<RepositoryInfo> decode() throws IOException {
+        return serializer.deserialize(encoded, RepositoryInfo.class);
+    }
+}
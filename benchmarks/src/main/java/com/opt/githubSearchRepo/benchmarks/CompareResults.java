@@ -0,0 +1,55 @@
+package com.opt.githubSearchRepo.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Prints the score change of every benchmark present in two JMH JSON result files:
+// java -cp benchmarks.jar com.opt.githubSearchRepo.benchmarks.CompareResults baseline.json current.json
+public final class CompareResults {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = scores(new File(args[0]));
+        Map<String, JsonNode> current = scores(new File(args[1]));
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        current.forEach((name, metric) -> {
+            JsonNode before = baseline.get(name);
+            double score = metric.get("score").asDouble();
+            String unit = metric.get("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", name, "-", score, "new", unit);
+                return;
+            }
+            double previous = before.get("score").asDouble();
+            double change = previous == 0 ? 0 : (score - previous) / previous * 100;
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%n", name, previous, score, change, unit);
+        });
+    }
+
+    private static Map<String, JsonNode> scores(File file) throws IOException {
+        Map<String, JsonNode> scores = new LinkedHashMap<>();
+        for (JsonNode run : OBJECT_MAPPER.readTree(file)) {
+            StringBuilder name = new StringBuilder(run.get("benchmark").asText());
+            JsonNode params = run.get("params");
+            if (params != null) {
+                Map<String, String> sorted = new TreeMap<>();
+                params.fields().forEachRemaining(param -> sorted.put(param.getKey(), param.getValue().asText()));
+                name.append(sorted);
+            }
+            scores.put(name.toString(), run.get("primaryMetric"));
+        }
+        return scores;
+    }
+}
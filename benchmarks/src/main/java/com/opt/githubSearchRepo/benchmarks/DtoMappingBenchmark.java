@@ -0,0 +1,80 @@
+package com.opt.githubSearchRepo.benchmarks;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.GitHubBranch;
+import com.opt.githubSearchRepo.dto.GitHubRepository;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Param({"10", "100"})
+    private int size;
+
+    private List<GitHubBranch> branches;
+    private List<GitHubRepository> repositories;
+    private List<BranchInfo> branchInfos;
+    private byte[] branchesJson;
+    private byte[] repositoriesJson;
+    private JavaType branchListType;
+    private JavaType repositoryListType;
+
+    @Setup
+    public void setUp() throws IOException {
+        branches = Payloads.branches(size);
+        repositories = Payloads.repositories("octocat", size);
+        branchInfos = branches.stream().map(BranchInfo::from).toList();
+        branchesJson = objectMapper.writeValueAsBytes(branches);
+        repositoriesJson = objectMapper.writeValueAsBytes(repositories);
+        branchListType = objectMapper.getTypeFactory().constructCollectionType(List.class, GitHubBranch.class);
+        repositoryListType = objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, GitHubRepository.class);
+    }
+
+    @Benchmark
+    public List<BranchInfo> mapBranches() {
+        return branches.stream().map(BranchInfo::from).toList();
+    }
+
+    @Benchmark
+    public List<RepositoryInfo> mapRepositories() {
+        return repositories.stream()
+                .filter(repository -> !repository.fork())
+                .map(repository -> RepositoryInfo.from(repository, branchInfos))
+                .toList();
+    }
+
+    @Benchmark
+    public List<BranchInfo> decodeAndMapBranches() throws IOException {
+        List<GitHubBranch> decoded = objectMapper.readValue(branchesJson, branchListType);
+        return decoded.stream().map(BranchInfo::from).toList();
+    }
+
+    @Benchmark
+    public List<GitHubRepository> decodeRepositories() throws IOException {
+        return objectMapper.readValue(repositoriesJson, repositoryListType);
+    }
+}
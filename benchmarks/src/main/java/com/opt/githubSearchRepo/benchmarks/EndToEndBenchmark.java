@@ -0,0 +1,91 @@
+package com.opt.githubSearchRepo.benchmarks;
+
+import com.opt.githubSearchRepo.GitHubSearchRepoApplication;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class EndToEndBenchmark {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Param({"cold", "warm"})
+    private String cache;
+
+    @Param({"20"})
+    private int repositories;
+
+    @Param({"5"})
+    private int upstreamLatencyMillis;
+
+    @Param({"event-loop", "virtual-threads"})
+    private String executionMode;
+
+    private final AtomicLong users = new AtomicLong();
+    private GithubSimulator github;
+    private StubRedisServer redis;
+    private ConfigurableApplicationContext application;
+    private WebClient client;
+
+    @Setup
+    public void setUp() throws IOException {
+        github = new GithubSimulator(GithubSimulator.Settings.of(repositories, 5,
+                Duration.ofMillis(upstreamLatencyMillis)), 0);
+        redis = new StubRedisServer();
+        application = new SpringApplication(GitHubSearchRepoApplication.class).run(
+                "--server.port=0",
+                "--github.api.mode=rest",
+                "--github.api.base-url=" + github.baseUrl(),
+                "--spring.data.redis.host=localhost",
+                "--spring.data.redis.port=" + redis.port(),
+                "--github.store.enabled=false",
+                "--github.execution.mode=" + executionMode,
+                "--logging.level.root=WARN");
+        int port = ((ReactiveWebServerApplicationContext) application).getWebServer().getPort();
+        client = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        application.close();
+        redis.close();
+        github.close();
+    }
+
+    @Benchmark
+    public String repositories() {
+        String username = "warm".equals(cache) ? "octocat" : "user-" + users.incrementAndGet();
+        return client.get()
+                .uri("/api/github/users/{username}/repos", username)
+                .retrieve()
+                .bodyToMono(String.class)
+                .block(TIMEOUT);
+    }
+}
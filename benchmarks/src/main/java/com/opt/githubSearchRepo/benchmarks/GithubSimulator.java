@@ -0,0 +1,246 @@
+package com.opt.githubSearchRepo.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.resources.LoopResources;
+
+// Local stand-in for the GitHub REST API the application calls: every user exists and owns the same number of
+// synthetic repositories and branches, served in per_page/page slices with Link headers, ETags and X-RateLimit-*
+// headers counted per Authorization header. Latency and 403/404/5xx responses can be injected at random. Run it on
+// its own with
+// java -cp benchmarks.jar com.opt.githubSearchRepo.benchmarks.GithubSimulator --port=8089 --latency=50ms
+// and point github.api.base-url at it. GET /_simulator/stats returns the calls served so far by status.
+public final class GithubSimulator implements AutoCloseable {
+    static final String STATS_PATH = "/_simulator/stats";
+    private static final int DEFAULT_PER_PAGE = 30;
+    private static final int MAX_PER_PAGE = 100;
+    private static final int[] SERVER_ERRORS = {500, 502, 503};
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final Settings settings;
+    private final Map<String, RateLimit> rateLimits = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> calls = new ConcurrentHashMap<>();
+    private final LoopResources loops = LoopResources.create("github-simulator", 2, true);
+    private final DisposableServer server;
+
+    public GithubSimulator(Settings settings, int port) {
+        this.settings = settings;
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(port)
+                .runOn(loops)
+                .route(routes -> routes
+                        .get("/users/{user}/repos", (request, response) -> serve(request, response,
+                                Payloads.repositories(request.param("user"), settings.repositories())))
+                        .get("/repos/{user}/{repo}/branches", (request, response) -> serve(request, response,
+                                Payloads.branches(settings.branches())))
+                        .get(STATS_PATH, (request, response) -> send(response, write(stats()))))
+                .bindNow();
+    }
+
+    public static void main(String[] args) {
+        Options options = Options.parse(args);
+        GithubSimulator simulator = new GithubSimulator(Settings.from(options), options.integer("port", 8089));
+        System.out.println("GitHub simulator listening on " + simulator.baseUrl() + " with " + simulator.settings);
+        simulator.server.onDispose().block();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    long calls() {
+        return calls.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+        loops.dispose();
+    }
+
+    private Mono<Void> serve(HttpServerRequest request, HttpServerResponse response, List<?> all) {
+        return Mono.delay(settings.latency())
+                .then(Mono.defer(() -> {
+                    RateLimit rateLimit = rateLimits.computeIfAbsent(token(request), token -> new RateLimit());
+                    if (!rateLimit.consume(settings, response)) {
+                        return error(response, HttpResponseStatus.FORBIDDEN, "API rate limit exceeded");
+                    }
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    if (random.nextDouble() < settings.forbiddenRate()) {
+                        response.header(HttpHeaders.RETRY_AFTER, String.valueOf(settings.retryAfter().toSeconds()));
+                        return error(response, HttpResponseStatus.FORBIDDEN,
+                                "You have exceeded a secondary rate limit");
+                    }
+                    if (random.nextDouble() < settings.notFoundRate()) {
+                        return error(response, HttpResponseStatus.NOT_FOUND, "Not Found");
+                    }
+                    if (random.nextDouble() < settings.serverErrorRate()) {
+                        int status = SERVER_ERRORS[random.nextInt(SERVER_ERRORS.length)];
+                        return error(response, HttpResponseStatus.valueOf(status), "Server Error");
+                    }
+                    return page(request, response, all);
+                }));
+    }
+
+    private Mono<Void> page(HttpServerRequest request, HttpServerResponse response, List<?> all) {
+        Map<String, List<String>> query = new QueryStringDecoder(request.uri()).parameters();
+        int perPage = Math.min(MAX_PER_PAGE, Math.max(1, parameter(query, "per_page", DEFAULT_PER_PAGE)));
+        int lastPage = Math.max(1, (all.size() + perPage - 1) / perPage);
+        int page = Math.max(1, parameter(query, "page", 1));
+        List<?> slice = all.subList(Math.min(all.size(), (page - 1) * perPage),
+                Math.min(all.size(), page * perPage));
+        if (lastPage > 1) {
+            response.header(HttpHeaders.LINK, links(request, perPage, page, lastPage));
+        }
+        byte[] body = write(slice);
+        String etag = "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+        response.header(HttpHeaders.ETAG, etag);
+        // Like GitHub, a revalidation answered with 304 does not count against the rate limit
+        if (etag.equals(request.requestHeaders().get(HttpHeaders.IF_NONE_MATCH))) {
+            rateLimits.get(token(request)).refund();
+            return count(response.status(HttpResponseStatus.NOT_MODIFIED)).send();
+        }
+        return json(response, body);
+    }
+
+    private String links(HttpServerRequest request, int perPage, int page, int lastPage) {
+        String url = baseUrl() + "/" + request.path() + "?per_page=" + perPage + "&page=";
+        StringBuilder links = new StringBuilder();
+        if (page < lastPage) {
+            links.append('<').append(url).append(page + 1).append(">; rel=\"next\", ");
+        }
+        links.append('<').append(url).append(lastPage).append(">; rel=\"last\"");
+        if (page > 1) {
+            links.append(", <").append(url).append(1).append(">; rel=\"first\"");
+            links.append(", <").append(url).append(page - 1).append(">; rel=\"prev\"");
+        }
+        return links.toString();
+    }
+
+    private Mono<Void> error(HttpServerResponse response, HttpResponseStatus status, String message) {
+        return json(response.status(status), write(Map.of("message", message)));
+    }
+
+    private Mono<Void> json(HttpServerResponse response, byte[] body) {
+        return send(count(response), body);
+    }
+
+    private HttpServerResponse count(HttpServerResponse response) {
+        calls.computeIfAbsent(response.status().code(), status -> new AtomicLong()).incrementAndGet();
+        return response;
+    }
+
+    private static Mono<Void> send(HttpServerResponse response, byte[] body) {
+        return response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .sendByteArray(Mono.just(body))
+                .then();
+    }
+
+    private Map<String, Object> stats() {
+        Map<Integer, Long> byStatus = new TreeMap<>();
+        calls.forEach((status, count) -> byStatus.put(status, count.get()));
+        return Map.of("calls", calls(), "byStatus", byStatus);
+    }
+
+    private byte[] write(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String token(HttpServerRequest request) {
+        String authorization = request.requestHeaders().get(HttpHeaders.AUTHORIZATION);
+        return authorization == null ? "anonymous" : authorization;
+    }
+
+    private static int parameter(Map<String, List<String>> query, String name, int defaultValue) {
+        List<String> values = query.get(name);
+        return values == null || values.isEmpty() ? defaultValue : Integer.parseInt(values.get(0));
+    }
+
+    // latency is the fixed part of every response delay, jitter an extra uniformly random part; the *-rate options
+    // are the share of calls answered with that error instead
+    public record Settings(int repositories, int branches, Duration baseLatency, Duration jitter, int rateLimit,
+                           Duration rateLimitWindow, double forbiddenRate, double notFoundRate,
+                           double serverErrorRate, Duration retryAfter) {
+
+        static Settings of(int repositories, int branches, Duration latency) {
+            return new Settings(repositories, branches, latency, Duration.ZERO, Integer.MAX_VALUE,
+                    Duration.ofHours(1), 0, 0, 0, Duration.ofSeconds(1));
+        }
+
+        static Settings from(Options options) {
+            return new Settings(options.integer("repositories", 20),
+                    options.integer("branches", 5),
+                    options.duration("latency", Duration.ofMillis(20)),
+                    options.duration("jitter", Duration.ZERO),
+                    options.integer("rate-limit", 5000),
+                    options.duration("rate-limit-window", Duration.ofHours(1)),
+                    options.decimal("forbidden-rate", 0),
+                    options.decimal("not-found-rate", 0),
+                    options.decimal("server-error-rate", 0),
+                    options.duration("retry-after", Duration.ofSeconds(1)));
+        }
+
+        Duration latency() {
+            long jitterNanos = jitter.toNanos();
+            return jitterNanos == 0
+                    ? baseLatency
+                    : baseLatency.plusNanos(ThreadLocalRandom.current().nextLong(jitterNanos));
+        }
+    }
+
+    // A token's budget for the current window, which starts with its first call
+    private static final class RateLimit {
+        private long windowEndMillis;
+        private int used;
+
+        synchronized boolean consume(Settings settings, HttpServerResponse response) {
+            long now = System.currentTimeMillis();
+            if (now >= windowEndMillis) {
+                windowEndMillis = now + settings.rateLimitWindow().toMillis();
+                used = 0;
+            }
+            boolean allowed = used < settings.rateLimit();
+            if (allowed) {
+                used++;
+            }
+            response.header("X-RateLimit-Limit", String.valueOf(settings.rateLimit()))
+                    .header("X-RateLimit-Remaining", String.valueOf(settings.rateLimit() - used))
+                    .header("X-RateLimit-Used", String.valueOf(used))
+                    .header("X-RateLimit-Reset", String.valueOf(windowEndMillis / 1000))
+                    .header("X-RateLimit-Resource", "core");
+            return allowed;
+        }
+
+        synchronized void refund() {
+            used = Math.max(0, used - 1);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.opt.githubSearchRepo.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.opt.githubSearchRepo.GitHubSearchRepoApplication;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+// Drives GET /api/github/users/{username}/repos at a fixed rate and reports latency percentiles, throughput and how
+// many GitHub calls each request cost. Requests are sent on schedule whether or not earlier ones have completed, and
+// latency is measured from the scheduled send time, so a stalled application shows up as latency rather than as a
+// lower request rate. Without --target it starts the GitHub simulator, a stub Redis and the application in-process;
+// simulator options (--repositories, --latency, --server-error-rate, ...) apply to that simulator and
+// --execution-mode to that application. With --target it drives a running instance and reads upstream calls from
+// the simulator at --simulator, if given.
+public final class LoadGenerator {
+    private static final String PATH = "/api/github/users/{username}/repos";
+    private static final String TIMEOUT = "timeout";
+    private static final String FAILED = "failed";
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = Options.parse(args);
+        int rate = options.integer("rps", 50);
+        Duration warmup = options.duration("warmup", Duration.ofSeconds(5));
+        Duration duration = options.duration("duration", Duration.ofSeconds(30));
+        try (Target target = Target.from(options)) {
+            WebClient client = client(target.url(), options.integer("connections", 1000));
+            Run run = new Run(client, options.integer("users", 100), options.string("query", ""),
+                    options.duration("timeout", Duration.ofSeconds(30)));
+            System.out.printf("Warming up at %d req/s for %ds against %s%n", rate, warmup.toSeconds(), target.url());
+            run.drive(rate, warmup);
+            long callsBefore = target.upstreamCalls(client);
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+            System.out.printf("Measuring at %d req/s for %ds%n", rate, duration.toSeconds());
+            Result result = run.drive(rate, duration);
+            long upstreamCalls = callsBefore < 0 ? -1 : target.upstreamCalls(client) - callsBefore;
+            result.print(upstreamCalls);
+            // Virtual threads are not counted; in-process the count includes the simulator and this generator
+            if (target.inProcess()) {
+                System.out.printf("Threads       %d platform threads live, %d at peak%n", threads.getThreadCount(),
+                        threads.getPeakThreadCount());
+            }
+        }
+    }
+
+    private static WebClient client(String url, int connections) {
+        ConnectionProvider provider = ConnectionProvider.builder("load-generator")
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        return WebClient.builder()
+                .baseUrl(url)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                .build();
+    }
+
+    private record Run(WebClient client, int users, String query, Duration timeout) {
+
+        // Open model: request i is due at start + i * interval, however long earlier requests take
+        Result drive(int rate, Duration duration) {
+            int requests = (int) (rate * duration.toMillis() / 1000);
+            long intervalNanos = 1_000_000_000L / rate;
+            long[] latencies = new long[requests];
+            String[] outcomes = new String[requests];
+            long start = System.nanoTime();
+            Flux.interval(Duration.ZERO, Duration.ofNanos(intervalNanos))
+                    .take(requests)
+                    .flatMap(tick -> send(start + tick * intervalNanos, tick.intValue(), latencies, outcomes),
+                            Integer.MAX_VALUE)
+                    .blockLast();
+            return new Result(rate, latencies, outcomes, System.nanoTime() - start);
+        }
+
+        private Mono<Void> send(long dueAt, int index, long[] latencies, String[] outcomes) {
+            String username = "user-" + ThreadLocalRandom.current().nextInt(users);
+            return client.get()
+                    .uri(uri -> uri.path(PATH).query(query.isEmpty() ? null : query).build(username))
+                    .exchangeToMono(response -> response.releaseBody()
+                            .thenReturn(String.valueOf(response.statusCode().value())))
+                    .timeout(timeout)
+                    .onErrorResume(e -> Mono.just(e instanceof TimeoutException ? TIMEOUT : FAILED))
+                    .doOnNext(outcome -> {
+                        latencies[index] = System.nanoTime() - dueAt;
+                        outcomes[index] = outcome;
+                    })
+                    .then();
+        }
+    }
+
+    private record Result(int rate, long[] latencies, String[] outcomes, long elapsedNanos) {
+
+        void print(long upstreamCalls) {
+            Map<String, Integer> byOutcome = new TreeMap<>();
+            Arrays.stream(outcomes).forEach(outcome -> byOutcome.merge(outcome, 1, Integer::sum));
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("Requests      %d at %d req/s, responses %s%n", sorted.length, rate, byOutcome);
+            System.out.printf("Throughput    %.1f req/s%n", sorted.length / seconds);
+            System.out.printf("Latency       p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    percentile(sorted, 1.0));
+            if (upstreamCalls < 0) {
+                System.out.println("Upstream      unknown, pass --simulator=<url> to count GitHub calls");
+            } else {
+                System.out.printf("Upstream      %d GitHub calls, %.2f per request%n", upstreamCalls,
+                        sorted.length == 0 ? 0 : (double) upstreamCalls / sorted.length);
+            }
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    // Where the load goes: a running application, or one started here against the simulator and a stub Redis
+    private static final class Target implements AutoCloseable {
+        private final String url;
+        private final String simulatorUrl;
+        private final AutoCloseable[] resources;
+
+        private Target(String url, String simulatorUrl, AutoCloseable... resources) {
+            this.url = url;
+            this.simulatorUrl = simulatorUrl;
+            this.resources = resources;
+        }
+
+        static Target from(Options options) throws IOException {
+            String url = options.string("target", null);
+            if (url != null) {
+                return new Target(url, options.string("simulator", null));
+            }
+            GithubSimulator github = new GithubSimulator(GithubSimulator.Settings.from(options), 0);
+            StubRedisServer redis = new StubRedisServer();
+            ConfigurableApplicationContext application = new SpringApplication(GitHubSearchRepoApplication.class)
+                    .run("--server.port=0",
+                            "--github.api.mode=rest",
+                            "--github.api.base-url=" + github.baseUrl(),
+                            "--spring.data.redis.host=localhost",
+                            "--spring.data.redis.port=" + redis.port(),
+                            "--github.store.enabled=false",
+                            "--github.execution.mode=" + options.string("execution-mode", "event-loop"),
+                            "--logging.level.root=WARN");
+            int port = ((ReactiveWebServerApplicationContext) application).getWebServer().getPort();
+            return new Target("http://localhost:" + port, github.baseUrl(), application, redis, github);
+        }
+
+        String url() {
+            return url;
+        }
+
+        boolean inProcess() {
+            return resources.length > 0;
+        }
+
+        long upstreamCalls(WebClient client) {
+            if (simulatorUrl == null) {
+                return -1;
+            }
+            JsonNode stats = client.get()
+                    .uri(simulatorUrl + GithubSimulator.STATS_PATH)
+                    .retrieve()
+                    .bodyToMono(JsonNode.class)
+                    .block(Duration.ofSeconds(10));
+            return stats == null ? -1 : stats.get("calls").asLong();
+        }
+
+        @Override
+        public void close() {
+            for (AutoCloseable resource : resources) {
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    System.err.println("Could not stop " + resource + ": " + e);
+                }
+            }
+        }
+    }
+}
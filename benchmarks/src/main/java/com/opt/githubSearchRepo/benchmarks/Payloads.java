@@ -0,0 +1,42 @@
+package com.opt.githubSearchRepo.benchmarks;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.GitHubBranch;
+import com.opt.githubSearchRepo.dto.GitHubRepository;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+final class Payloads {
+    private static final Instant PUSHED_AT = Instant.parse("2024-06-01T12:00:00Z");
+
+    private Payloads() {
+    }
+
+    static List<GitHubBranch> branches(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new GitHubBranch("feature/branch-" + i, new GitHubBranch.Commit(sha(i))))
+                .toList();
+    }
+
+    static List<GitHubRepository> repositories(String owner, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new GitHubRepository("repository-" + i, new GitHubRepository.Owner(owner), i % 5 == 0,
+                        PUSHED_AT.minusSeconds(i), PUSHED_AT))
+                .toList();
+    }
+
+    static List<RepositoryInfo> repositoryInfos(String owner, int repositories, int branchesPerRepository) {
+        List<BranchInfo> branches = branches(branchesPerRepository).stream()
+                .map(BranchInfo::from)
+                .toList();
+        return repositories(owner, repositories).stream()
+                .map(repository -> RepositoryInfo.from(repository, branches))
+                .toList();
+    }
+
+    static String sha(int seed) {
+        return "%040x".formatted(seed * 2_654_435_761L);
+    }
+}
@@ -0,0 +1,66 @@
+package com.opt.githubSearchRepo.benchmarks;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.GitHubBranch;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReactivePipelineBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int branches;
+
+    private List<GitHubBranch> page;
+    private Scheduler parallelScheduler;
+
+    @Setup
+    public void setUp() {
+        page = Payloads.branches(branches);
+        parallelScheduler = Schedulers.newParallel("benchmark-parallel-scheduler", 10);
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelScheduler.dispose();
+    }
+
+    @Benchmark
+    public List<BranchInfo> plainMap() {
+        return Flux.fromIterable(page)
+                .map(BranchInfo::from)
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public List<BranchInfo> parallelRunOn() {
+        return Flux.fromIterable(page)
+                .parallel(10)
+                .runOn(parallelScheduler)
+                .map(BranchInfo::from)
+                .sequential()
+                .collectList()
+                .block();
+    }
+}
@@ -0,0 +1,184 @@
+package com.opt.githubSearchRepo.benchmarks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// In-memory Redis speaking just enough RESP2 for CacheService: HMGET, the put/touch scripts
+// (via EVAL after answering EVALSHA with NOSCRIPT), PUBLISH and SUBSCRIBE. Expiry is ignored.
+final class StubRedisServer implements AutoCloseable {
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final Map<String, Map<String, byte[]>> hashes = new ConcurrentHashMap<>();
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final ServerSocket serverSocket;
+
+    StubRedisServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        connections.submit(this::accept);
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private Void accept() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket = serverSocket.accept();
+            connections.submit(() -> serve(socket));
+        }
+        return null;
+    }
+
+    private Void serve(Socket socket) throws IOException {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            List<byte[]> command;
+            while ((command = readCommand(in)) != null) {
+                handle(command, out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                throw e;
+            }
+        }
+        return null;
+    }
+
+    private void handle(List<byte[]> command, OutputStream out) throws IOException {
+        String name = string(command.get(0)).toUpperCase();
+        switch (name) {
+            case "PING" -> simple(out, "+PONG");
+            case "CLIENT", "SELECT" -> simple(out, "+OK");
+            case "HMGET" -> {
+                Map<String, byte[]> hash = hashes.getOrDefault(string(command.get(1)), Map.of());
+                List<byte[]> values = new ArrayList<>();
+                for (int i = 2; i < command.size(); i++) {
+                    values.add(hash.get(string(command.get(i))));
+                }
+                array(out, values);
+            }
+            case "EVALSHA" -> simple(out, "-NOSCRIPT No matching script. Please use EVAL.");
+            case "EVAL" -> integer(out, eval(command));
+            case "PUBLISH" -> integer(out, 0);
+            case "SUBSCRIBE" -> {
+                out.write(("*3\r\n$9\r\nsubscribe\r\n").getBytes(StandardCharsets.US_ASCII));
+                bulk(out, command.get(1));
+                integer(out, 1);
+            }
+            default -> simple(out, "-ERR unknown command '" + name + "'");
+        }
+    }
+
+    private long eval(List<byte[]> command) {
+        String script = string(command.get(1));
+        String key = string(command.get(3));
+        List<byte[]> args = command.subList(4, command.size());
+        if (script.contains("fetchedAt")) {
+            Map<String, byte[]> existing = hashes.get(key);
+            if (existing != null && existing.containsKey("fetchedAt")
+                    && Long.parseLong(string(existing.get("fetchedAt"))) > Long.parseLong(string(args.get(4)))) {
+                return 0;
+            }
+            Map<String, byte[]> hash = new ConcurrentHashMap<>();
+            hash.put("data", args.get(0));
+            hash.put("etag", args.get(1));
+            hash.put("lastModified", args.get(2));
+            hash.put("freshUntil", args.get(3));
+            hash.put("fetchedAt", args.get(4));
+            hashes.put(key, hash);
+            return 1;
+        }
+        Map<String, byte[]> hash = hashes.get(key);
+        if (hash == null) {
+            return 0;
+        }
+        hash.put("freshUntil", args.get(0));
+        return 1;
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        int marker = in.read();
+        if (marker == -1) {
+            return null;
+        }
+        if (marker != '*') {
+            throw new IOException("Expected a RESP array but got '" + (char) marker + "'");
+        }
+        int count = Integer.parseInt(readLine(in));
+        List<byte[]> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Expected a RESP bulk string");
+            }
+            int length = Integer.parseInt(readLine(in));
+            parts.add(in.readNBytes(length));
+            in.skipNBytes(CRLF.length);
+        }
+        return parts;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int next;
+        while ((next = in.read()) != '\r') {
+            if (next == -1) {
+                throw new IOException("Connection closed mid-command");
+            }
+            line.append((char) next);
+        }
+        in.skipNBytes(1);
+        return line.toString();
+    }
+
+    private static void simple(OutputStream out, String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write(CRLF);
+    }
+
+    private static void integer(OutputStream out, long value) throws IOException {
+        simple(out, ":" + value);
+    }
+
+    private static void bulk(OutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            simple(out, "$-1");
+            return;
+        }
+        simple(out, "$" + value.length);
+        out.write(value);
+        out.write(CRLF);
+    }
+
+    private static void array(OutputStream out, List<byte[]> values) throws IOException {
+        simple(out, "*" + values.size());
+        for (byte[] value : values) {
+            bulk(out, value);
+        }
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
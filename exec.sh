@@ -10,6 +10,9 @@ case "$1" in
   "logs:app") docker-compose logs app ;;
   "logs:redis") docker-compose logs redis ;;
   "stop") scripts/stop.sh ;;
+  "benchmark") shift; scripts/benchmark.sh "$@" ;;
+  "load-test") shift; scripts/load-test.sh "$@" ;;
+  "replay-webhook") shift; scripts/replay-webhook.sh "$@" ;;
 
   # Kubernetes specific cases
   "buildK") scripts/buildK.sh ;;
@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+
+RESULTS_DIR=benchmarks/results
+RESULT_FILE="$RESULTS_DIR/$(git rev-parse --short HEAD).json"
+
+echo "Installing the application classes for the benchmarks module..."
+mvn -B install -DskipTests
+if [ $? -ne 0 ]; then
+    echo "Maven build failed. Exiting..."
+    exit 1
+fi
+
+echo "Packaging the benchmarks..."
+mvn -B -f benchmarks/pom.xml package
+if [ $? -ne 0 ]; then
+    echo "Benchmarks build failed. Exiting..."
+    exit 1
+fi
+
+mkdir -p "$RESULTS_DIR"
+java -jar benchmarks/target/benchmarks.jar -rf json -rff "$RESULT_FILE" "$@"
+
+echo "Results written to $RESULT_FILE"
+echo "Compare with another commit using:"
+echo "  java -cp benchmarks/target/benchmarks.jar com.opt.githubSearchRepo.benchmarks.CompareResults <baseline.json> $RESULT_FILE"
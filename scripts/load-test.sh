@@ -0,0 +1,17 @@
+#!/usr/bin/env bash
+
+echo "Installing the application classes for the benchmarks module..."
+mvn -B install -DskipTests
+if [ $? -ne 0 ]; then
+    echo "Maven build failed. Exiting..."
+    exit 1
+fi
+
+echo "Packaging the benchmarks..."
+mvn -B -f benchmarks/pom.xml package
+if [ $? -ne 0 ]; then
+    echo "Benchmarks build failed. Exiting..."
+    exit 1
+fi
+
+java -cp benchmarks/target/benchmarks.jar com.opt.githubSearchRepo.benchmarks.LoadGenerator "$@"
@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+
+# Replays a recorded GitHub webhook delivery against a running instance, signed with GITHUB_WEBHOOK_SECRET
+# Usage: scripts/replay-webhook.sh <event> <payload.json> [url]
+
+EVENT=$1
+PAYLOAD=$2
+URL=${3:-http://127.0.0.1:8000/api/github/webhooks}
+
+if [ -z "$EVENT" ] || [ ! -f "$PAYLOAD" ]; then
+    echo "Usage: sh exec.sh replay-webhook <event> <payload.json> [url]"
+    echo "Recorded payloads are in src/test/resources/webhooks"
+    exit 1
+fi
+if [ -z "$GITHUB_WEBHOOK_SECRET" ]; then
+    echo "GITHUB_WEBHOOK_SECRET must be set to the secret the application was started with. Exiting..."
+    exit 1
+fi
+
+SIGNATURE="sha256=$(openssl dgst -sha256 -hmac "$GITHUB_WEBHOOK_SECRET" < "$PAYLOAD" | sed 's/^.* //')"
+
+curl -s -o /dev/null -w "%{http_code}\n" -X POST "$URL" \
+    -H "Content-Type: application/json" \
+    -H "X-GitHub-Event: $EVENT" \
+    -H "X-GitHub-Delivery: replay-$(date +%s)" \
+    -H "X-Hub-Signature-256: $SIGNATURE" \
+    --data-binary "@$PAYLOAD"
@@ -0,0 +1,54 @@
+package com.opt.githubSearchRepo.config;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+// Where work that should not hold up a Netty or Redis client thread runs. In event-loop mode cache entries are
+// encoded, compressed and decoded on the thread that produced or received them and blocking adapters go to
+// Reactor's bounded elastic pool; in virtual-threads mode both run on a virtual thread per task, so a burst of large
+// cache writes neither delays other responses on the event loop nor grows a platform thread pool.
+@Configuration
+@Slf4j
+public class ExecutionConfig {
+    public static final String CACHE_SCHEDULER = "cacheScheduler";
+    public static final String BLOCKING_SCHEDULER = "blockingScheduler";
+    static final String EVENT_LOOP = "event-loop";
+    static final String VIRTUAL_THREADS = "virtual-threads";
+
+    private final Scheduler virtualThreads;
+
+    public ExecutionConfig(@Value("${github.execution.mode:event-loop}") String mode) {
+        if (!EVENT_LOOP.equals(mode) && !VIRTUAL_THREADS.equals(mode)) {
+            throw new IllegalArgumentException("Unknown execution mode: " + mode + ", expected " + EVENT_LOOP
+                    + " or " + VIRTUAL_THREADS);
+        }
+        this.virtualThreads = VIRTUAL_THREADS.equals(mode)
+                ? Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "virtual-threads")
+                : null;
+        log.info("Running cache encoding and blocking adapters in {} mode", mode);
+    }
+
+    // Disposed with the configuration rather than per bean: in event-loop mode these are Reactor's shared schedulers
+    @Bean(name = CACHE_SCHEDULER, destroyMethod = "")
+    public Scheduler cacheScheduler() {
+        return virtualThreads != null ? virtualThreads : Schedulers.immediate();
+    }
+
+    @Bean(name = BLOCKING_SCHEDULER, destroyMethod = "")
+    public Scheduler blockingScheduler() {
+        return virtualThreads != null ? virtualThreads : Schedulers.boundedElastic();
+    }
+
+    @PreDestroy
+    public void disposeVirtualThreads() {
+        if (virtualThreads != null) {
+            virtualThreads.dispose();
+        }
+    }
+}
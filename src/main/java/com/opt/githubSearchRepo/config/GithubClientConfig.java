@@ -0,0 +1,145 @@
+package com.opt.githubSearchRepo.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.netty.channel.ChannelOption;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.tcp.SslProvider;
+
+// Connection pool and timeouts of the WebClient used for GitHub calls. Spring Boot applies the connector below to
+// every WebClient.Builder it hands out, so the REST and GraphQL clients share one pool. H2 is negotiated over TLS
+// and multiplexes calls over a few connections; plain http base URLs (local stubs) stay on HTTP/1.1 unless H2C is
+// configured for prior-knowledge cleartext HTTP/2.
+@Configuration
+public class GithubClientConfig {
+    static final String POOL_NAME = "github";
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider githubConnectionProvider(
+            MeterRegistry meterRegistry,
+            @Value("${github.api.base-url:https://api.github.com}") String baseUrl,
+            @Value("${github.client.protocols:H2,HTTP11}") HttpProtocol[] protocols,
+            @Value("${github.client.pool.max-connections:100}") int maxConnections,
+            @Value("${github.client.pool.max-pending-acquires:1000}") int maxPendingAcquires,
+            @Value("${github.client.pool.pending-acquire-timeout:10s}") Duration pendingAcquireTimeout,
+            @Value("${github.client.pool.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${github.client.pool.max-life-time:10m}") Duration maxLifeTime,
+            @Value("${github.client.pool.eviction-interval:15s}") Duration evictionInterval,
+            @Value("${github.client.http2.max-connections:2}") int http2MaxConnections,
+            @Value("${github.client.http2.max-concurrent-streams:100}") int http2MaxConcurrentStreams) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxPendingAcquires)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictionInterval)
+                .metrics(true, () -> new PoolMeters(meterRegistry));
+        // Without a cap the HTTP/2 pool opens another connection whenever its connections are busy handing out a
+        // stream, so bursts end up spread over many connections instead of being multiplexed over a few. The
+        // strategy caps HTTP/1.1 connections as well, which is why it is only set when HTTP/2 will be spoken.
+        if (speaksHttp2(baseUrl, protocols)) {
+            builder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(http2MaxConnections)
+                    .maxConcurrentStreams(http2MaxConcurrentStreams)
+                    .build());
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public ClientHttpConnector githubClientHttpConnector(
+            ConnectionProvider githubConnectionProvider,
+            @Value("${github.client.protocols:H2,HTTP11}") HttpProtocol[] protocols,
+            @Value("${github.client.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${github.client.tls-handshake-timeout:10s}") Duration tlsHandshakeTimeout,
+            @Value("${github.client.response-timeout:30s}") Duration responseTimeout) {
+        SslProvider.ProtocolSslContextSpec sslContext = Arrays.asList(protocols).contains(HttpProtocol.H2)
+                ? Http2SslContextSpec.forClient()
+                : Http11SslContextSpec.forClient();
+        HttpClient httpClient = HttpClient.create(githubConnectionProvider)
+                .protocol(protocols)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout)
+                // Only applies to https URLs; the ALPN list offers h2 only when H2 is configured
+                .secure(spec -> spec.sslContext(sslContext).handshakeTimeout(tlsHandshakeTimeout));
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    private static boolean speaksHttp2(String baseUrl, HttpProtocol[] protocols) {
+        List<HttpProtocol> configured = Arrays.asList(protocols);
+        return "https".equalsIgnoreCase(URI.create(baseUrl).getScheme())
+                ? configured.contains(HttpProtocol.H2)
+                : configured.contains(HttpProtocol.H2C);
+    }
+
+    // Reactor Netty keeps one pool per remote address and reports each one here as it is created and disposed.
+    // For HTTP/2 pools active counts open streams rather than connections.
+    static final class PoolMeters implements ConnectionProvider.MeterRegistrar {
+        private final MeterRegistry meterRegistry;
+        private final Map<String, List<Gauge>> gauges = new ConcurrentHashMap<>();
+
+        PoolMeters(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+                                    ConnectionPoolMetrics metrics) {
+            Tags tags = Tags.of("pool", poolName, "remote", remote(remoteAddress));
+            gauges.put(id + remoteAddress, List.of(
+                    gauge("github.client.pool.active", "Connections or HTTP/2 streams in use", metrics,
+                            ConnectionPoolMetrics::acquiredSize, tags),
+                    gauge("github.client.pool.idle", "Open connections waiting in the pool", metrics,
+                            ConnectionPoolMetrics::idleSize, tags),
+                    gauge("github.client.pool.pending", "Requests waiting for a connection", metrics,
+                            ConnectionPoolMetrics::pendingAcquireSize, tags),
+                    gauge("github.client.pool.allocated", "Connections opened by the pool", metrics,
+                            ConnectionPoolMetrics::allocatedSize, tags)));
+        }
+
+        @Override
+        public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+            List<Gauge> removed = gauges.remove(id + remoteAddress);
+            if (removed != null) {
+                removed.forEach(meterRegistry::remove);
+            }
+        }
+
+        private Gauge gauge(String name, String description, ConnectionPoolMetrics metrics,
+                            ToDoubleFunction<ConnectionPoolMetrics> value, Tags tags) {
+            return Gauge.builder(name, metrics, value)
+                    .tags(tags)
+                    .description(description)
+                    .strongReference(true)
+                    .register(meterRegistry);
+        }
+
+        private static String remote(SocketAddress address) {
+            return address instanceof InetSocketAddress inet
+                    ? inet.getHostString() + ":" + inet.getPort()
+                    : String.valueOf(address);
+        }
+    }
+}
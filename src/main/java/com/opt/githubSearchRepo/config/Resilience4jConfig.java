@@ -1,7 +1,6 @@
 package com.opt.githubSearchRepo.config;
 
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.ratelimiter.RateLimiterConfig;
 import io.github.resilience4j.retry.RetryConfig;
 import java.time.Duration;
 import org.springframework.context.annotation.Bean;
@@ -25,12 +24,4 @@ public class Resilience4jConfig {
                 .waitDuration(Duration.ofMillis(500))
                 .build();
     }
-
-    @Bean
-    public RateLimiterConfig rateLimiterConfig() {
-        return RateLimiterConfig.custom()
-                .limitForPeriod(10)
-                .limitRefreshPeriod(Duration.ofSeconds(1))
-                .build();
-    }
 }
@@ -1,8 +1,12 @@
 package com.opt.githubSearchRepo.controllers;
 
 import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.BulkRepositoriesRequest;
 import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import com.opt.githubSearchRepo.dto.UserRepositories;
+import com.opt.githubSearchRepo.service.BulkRepositorySearchService;
 import com.opt.githubSearchRepo.service.GithubService;
+import com.opt.githubSearchRepo.service.RepositoryQuery;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -11,7 +15,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 
@@ -21,18 +28,50 @@ import reactor.core.publisher.Flux;
 @Tag(name = "GitHub API", description = "Operations related to GitHub repositories and branches")
 public class GithubController {
     private final GithubService githubService;
+    private final BulkRepositorySearchService bulkRepositorySearchService;
 
     @Operation(summary = "Get Non-Fork Repositories",
-            description = "Retrieve all non-fork repositories for a given GitHub username.")
+            description = "Retrieve all non-fork repositories for a given GitHub username. "
+                    + "Request application/x-ndjson or text/event-stream to receive each repository "
+                    + "as soon as its branches are resolved. fields (comma separated name, ownerLogin, branches, "
+                    + "pushedAt) limits what is returned; leaving out branches skips fetching them. branchPrefix "
+                    + "keeps only branches starting with it, sort orders by name or pushedAt ('-' prefix for "
+                    + "descending) and offset/limit return one page, by name unless sorted otherwise.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved non-fork repositories"),
+            @ApiResponse(responseCode = "400", description = "Unknown field or sort, or invalid offset or limit"),
             @ApiResponse(responseCode = "404", description = "User not found"),
             @ApiResponse(responseCode = "403", description = "Rate limit exceeded or access forbidden")
     })
     @GetMapping(value = "/users/{username}/repos",
-            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
-    public Flux<RepositoryInfo> getNonForkRepositories(@PathVariable String username) {
-        return githubService.getNonForkRepositories(username);
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE,
+                    MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<RepositoryInfo> getNonForkRepositories(@PathVariable String username,
+                                                       @RequestParam(required = false) String fields,
+                                                       @RequestParam(required = false) String branchPrefix,
+                                                       @RequestParam(required = false) String sort,
+                                                       @RequestParam(required = false) Integer offset,
+                                                       @RequestParam(required = false) Integer limit) {
+        RepositoryQuery query = RepositoryQuery.of(fields, branchPrefix, sort, offset, limit);
+        return query.isUnrestricted()
+                ? githubService.getNonForkRepositories(username)
+                : githubService.getNonForkRepositories(username, query);
+    }
+
+    @Operation(summary = "Get Non-Fork Repositories for Many Users",
+            description = "Retrieve non-fork repositories for a list of GitHub usernames. One entry is streamed "
+                    + "per user as soon as it is resolved; users that could not be fetched get an entry with "
+                    + "an error instead of failing the whole request.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per-user results, including per-user errors"),
+            @ApiResponse(responseCode = "400", description = "No usernames or too many usernames")
+    })
+    @PostMapping(value = "/users/repos",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE,
+                    MediaType.APPLICATION_JSON_VALUE})
+    public Flux<UserRepositories> getNonForkRepositoriesInBulk(@RequestBody BulkRepositoriesRequest request) {
+        return bulkRepositorySearchService.getNonForkRepositories(request.usernames());
     }
 
     @Operation(summary = "Get Branches",
@@ -0,0 +1,45 @@
+package com.opt.githubSearchRepo.controllers;
+
+import com.opt.githubSearchRepo.service.GithubWebhookService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/github/webhooks")
+@RequiredArgsConstructor
+@Tag(name = "GitHub Webhooks", description = "Push-driven updates of cached repositories and branches")
+public class GithubWebhookController {
+    static final String EVENT_HEADER = "X-GitHub-Event";
+    static final String SIGNATURE_HEADER = "X-Hub-Signature-256";
+
+    private final GithubWebhookService webhookService;
+
+    @Operation(summary = "Receive a GitHub Webhook Delivery",
+            description = "Accepts push, create, delete and repository events signed with the configured secret and "
+                    + "updates or evicts the cached repository and branch lists they affect. Other events are "
+                    + "acknowledged and ignored.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Delivery applied or ignored"),
+            @ApiResponse(responseCode = "400", description = "Malformed payload"),
+            @ApiResponse(responseCode = "401", description = "Missing or invalid X-Hub-Signature-256")
+    })
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Void>> receive(@RequestHeader(value = EVENT_HEADER, required = false) String event,
+                                              @RequestHeader(value = SIGNATURE_HEADER, required = false)
+                                              String signature,
+                                              @RequestBody byte[] payload) {
+        return webhookService.handle(event, signature, payload)
+                .map(applied -> ResponseEntity.noContent().build());
+    }
+}
@@ -5,4 +5,9 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public record BranchInfo(
         @JsonProperty("name") String name,
         @JsonProperty("commitSha") String commitSha
-) {}
+) {
+
+    public static BranchInfo from(GitHubBranch branch) {
+        return new BranchInfo(branch.name(), branch.commit().sha());
+    }
+}
@@ -0,0 +1,7 @@
+package com.opt.githubSearchRepo.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+public record BulkRepositoriesRequest(
+        @JsonProperty("usernames") List<String> usernames) {}
@@ -0,0 +1,45 @@
+package com.opt.githubSearchRepo.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record GitHubGraphQlResponse(
+        @JsonProperty("data") Data data,
+        @JsonProperty("errors") List<Error> errors
+) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Data(
+            @JsonProperty("repositoryOwner") RepositoryOwner repositoryOwner,
+            @JsonProperty("repository") Repository repository
+    ) {}
+
+    public record RepositoryOwner(@JsonProperty("repositories") Connection<Repository> repositories) {}
+
+    public record Repository(
+            @JsonProperty("name") String name,
+            @JsonProperty("owner") GitHubRepository.Owner owner,
+            @JsonProperty("pushedAt") Instant pushedAt,
+            @JsonProperty("refs") Connection<Ref> refs
+    ) {}
+
+    public record Ref(@JsonProperty("name") String name, @JsonProperty("target") Target target) {}
+
+    public record Target(@JsonProperty("oid") String oid) {}
+
+    public record Connection<T>(
+            @JsonProperty("pageInfo") PageInfo pageInfo,
+            @JsonProperty("nodes") List<T> nodes
+    ) {}
+
+    public record PageInfo(
+            @JsonProperty("hasNextPage") boolean hasNextPage,
+            @JsonProperty("endCursor") String endCursor
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Error(@JsonProperty("type") String type, @JsonProperty("message") String message) {}
+}
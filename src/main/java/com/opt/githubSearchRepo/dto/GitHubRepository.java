@@ -1,11 +1,19 @@
 package com.opt.githubSearchRepo.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
 
 public record GitHubRepository(
         @JsonProperty("name") String name,
         @JsonProperty("owner") Owner owner,
-        @JsonProperty("fork") boolean fork
+        @JsonProperty("fork") boolean fork,
+        @JsonProperty("pushed_at") Instant pushedAt,
+        @JsonProperty("updated_at") Instant updatedAt
 ) {
     public record Owner(@JsonProperty("login") String login) {}
+
+    // Repositories that were never pushed to have no pushed_at; any later change still moves updated_at
+    public Instant lastPushedAt() {
+        return pushedAt != null ? pushedAt : updatedAt;
+    }
 }
@@ -0,0 +1,36 @@
+package com.opt.githubSearchRepo.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// The fields of push, create, delete and repository webhook payloads that affect cached lists. Push payloads carry
+// the full ref ("refs/heads/main"), create and delete payloads the short name plus its ref_type.
+public record GitHubWebhookEvent(
+        @JsonProperty("action") String action,
+        @JsonProperty("ref") String ref,
+        @JsonProperty("ref_type") String refType,
+        @JsonProperty("after") String after,
+        @JsonProperty("deleted") boolean deleted,
+        @JsonProperty("repository") GitHubRepository repository,
+        @JsonProperty("changes") Changes changes
+) {
+    public record Changes(@JsonProperty("repository") RepositoryChanges repository,
+                          @JsonProperty("owner") OwnerChanges owner) {}
+
+    public record RepositoryChanges(@JsonProperty("name") Change name) {}
+
+    public record OwnerChanges(@JsonProperty("from") PreviousOwner from) {}
+
+    public record PreviousOwner(@JsonProperty("user") GitHubRepository.Owner user) {}
+
+    public record Change(@JsonProperty("from") String from) {}
+
+    public String previousName() {
+        return changes == null || changes.repository() == null || changes.repository().name() == null
+                ? null : changes.repository().name().from();
+    }
+
+    public String previousOwner() {
+        return changes == null || changes.owner() == null || changes.owner().from() == null
+                || changes.owner().from().user() == null ? null : changes.owner().from().user().login();
+    }
+}
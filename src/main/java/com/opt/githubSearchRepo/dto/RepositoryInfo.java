@@ -1,9 +1,23 @@
 package com.opt.githubSearchRepo.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
 import java.util.List;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record RepositoryInfo(
         @JsonProperty("name") String name,
         @JsonProperty("ownerLogin") String ownerLogin,
-        @JsonProperty("branches") List<BranchInfo> branches) {}
+        @JsonProperty("branches") List<BranchInfo> branches,
+        @JsonProperty("pushedAt") Instant pushedAt) {
+
+    public RepositoryInfo(String name, String ownerLogin, List<BranchInfo> branches) {
+        this(name, ownerLogin, branches, null);
+    }
+
+    public static RepositoryInfo from(GitHubRepository repository, List<BranchInfo> branches) {
+        return new RepositoryInfo(repository.name(), repository.owner().login(), branches,
+                repository.lastPushedAt());
+    }
+}
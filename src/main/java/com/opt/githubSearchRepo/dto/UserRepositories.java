@@ -0,0 +1,21 @@
+package com.opt.githubSearchRepo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.opt.githubSearchRepo.exception.ErrorResponse;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserRepositories(
+        @JsonProperty("username") String username,
+        @JsonProperty("repositories") List<RepositoryInfo> repositories,
+        @JsonProperty("error") ErrorResponse error) {
+
+    public static UserRepositories success(String username, List<RepositoryInfo> repositories) {
+        return new UserRepositories(username, repositories, null);
+    }
+
+    public static UserRepositories failure(String username, ErrorResponse error) {
+        return new UserRepositories(username, null, error);
+    }
+}
@@ -0,0 +1,8 @@
+package com.opt.githubSearchRepo.exception;
+
+// GitHub answered, but not with something usable, such as a GraphQL response carrying errors instead of data
+public class GithubApiException extends RuntimeException {
+    public GithubApiException(String message) {
+        super(message);
+    }
+}
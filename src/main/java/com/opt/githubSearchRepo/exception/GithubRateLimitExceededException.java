@@ -0,0 +1,16 @@
+package com.opt.githubSearchRepo.exception;
+
+import java.time.Duration;
+
+public class GithubRateLimitExceededException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public GithubRateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,12 @@
+package com.opt.githubSearchRepo.exception;
+
+// The caller sent something this service cannot act on, such as an unknown field or an empty bulk batch
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
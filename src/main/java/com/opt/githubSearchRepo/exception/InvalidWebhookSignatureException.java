@@ -0,0 +1,7 @@
+package com.opt.githubSearchRepo.exception;
+
+public class InvalidWebhookSignatureException extends RuntimeException {
+    public InvalidWebhookSignatureException(String message) {
+        super(message);
+    }
+}
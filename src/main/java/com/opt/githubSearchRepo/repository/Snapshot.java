@@ -0,0 +1,11 @@
+package com.opt.githubSearchRepo.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+public record Snapshot<T>(List<T> data, String etag, String lastModified, Instant fetchedAt) {
+
+    public Snapshot {
+        data = List.copyOf(data);
+    }
+}
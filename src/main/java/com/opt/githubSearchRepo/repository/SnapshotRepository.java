@@ -0,0 +1,294 @@
+package com.opt.githubSearchRepo.repository;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import io.r2dbc.spi.Parameters;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Last known repository and branch lists per user in Postgres. Each write replaces the stored list as a whole,
+// unless the stored one was fetched later, so a slow write never rolls a snapshot back. Repositories are keyed by
+// their lower-cased name, since GitHub matches names regardless of case, and listed ones keep the name as listed.
+@Repository
+public class SnapshotRepository {
+    private static final String FIND_REPOSITORIES = """
+            SELECT u.etag, u.last_modified, u.fetched_at, r.display_name AS repository_name, r.owner_login, r.pushed_at,
+                   b.name AS branch_name, b.commit_sha
+            FROM github_users u
+            LEFT JOIN github_repositories r ON r.username = u.username AND r.list_position IS NOT NULL
+            LEFT JOIN github_branches b ON b.username = r.username AND b.repository_name = r.name
+            WHERE u.username = :username AND u.fetched_at > :fetchedAfter
+            ORDER BY r.list_position, b.position""";
+    private static final String FIND_BRANCHES = """
+            SELECT r.branches_etag, r.branches_last_modified, r.branches_fetched_at,
+                   b.name AS branch_name, b.commit_sha
+            FROM github_repositories r
+            LEFT JOIN github_branches b ON b.username = r.username AND b.repository_name = r.name
+            WHERE r.username = :username AND r.name = :name AND r.branches_fetched_at > :fetchedAfter
+            ORDER BY b.position""";
+    private static final String FIND_RECENT_USERNAMES = """
+            SELECT username FROM github_users
+            WHERE fetched_at > :fetchedAfter
+            ORDER BY fetched_at DESC
+            LIMIT :limit""";
+    private static final String UPDATE_USER = """
+            UPDATE github_users SET etag = :etag, last_modified = :lastModified, fetched_at = :fetchedAt
+            WHERE username = :username AND fetched_at <= :fetchedAt""";
+    private static final String USER_EXISTS = "SELECT COUNT(*) FROM github_users WHERE username = :username";
+    private static final String INSERT_USER = """
+            INSERT INTO github_users (username, etag, last_modified, fetched_at)
+            VALUES (:username, :etag, :lastModified, :fetchedAt)""";
+    private static final String LIST_REPOSITORY = """
+            UPDATE github_repositories
+            SET display_name = :displayName, list_position = :position, owner_login = :ownerLogin,
+                pushed_at = :pushedAt
+            WHERE username = :username AND name = :name""";
+    // Only repositories the previous list held; rows known only by their branches have no list_position
+    private static final String DELETE_DROPPED_REPOSITORIES = """
+            DELETE FROM github_repositories
+            WHERE username = :username AND list_position IS NOT NULL AND name NOT IN (:names)""";
+    private static final String DELETE_LISTED_REPOSITORIES =
+            "DELETE FROM github_repositories WHERE username = :username AND list_position IS NOT NULL";
+    private static final String INSERT_REPOSITORY = """
+            INSERT INTO github_repositories (username, name, display_name, owner_login, list_position, pushed_at,
+                                             branches_etag, branches_last_modified, branches_fetched_at)
+            VALUES (:username, :name, :displayName, :ownerLogin, :position, :pushedAt, :etag, :lastModified,
+                    :fetchedAt)""";
+    private static final String UPDATE_BRANCHES = """
+            UPDATE github_repositories
+            SET branches_etag = :etag, branches_last_modified = :lastModified, branches_fetched_at = :fetchedAt
+            WHERE username = :username AND name = :name AND branches_fetched_at <= :fetchedAt""";
+    private static final String REPOSITORY_EXISTS =
+            "SELECT COUNT(*) FROM github_repositories WHERE username = :username AND name = :name";
+    private static final String DELETE_BRANCHES =
+            "DELETE FROM github_branches WHERE username = :username AND repository_name = :name";
+    // Expired snapshots keep their rows, so a later write is applied as usual, but fall outside every freshness window
+    private static final String EXPIRE_USER =
+            "UPDATE github_users SET fetched_at = :expiredAt WHERE username = :username";
+    private static final String EXPIRE_BRANCHES = """
+            UPDATE github_repositories SET branches_fetched_at = :expiredAt
+            WHERE username = :username AND name = :name""";
+    private static final String INSERT_BRANCH = """
+            INSERT INTO github_branches (username, repository_name, name, commit_sha, position)
+            VALUES ($1, $2, $3, $4, $5)""";
+
+    private final DatabaseClient databaseClient;
+
+    public SnapshotRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Snapshot<RepositoryInfo>> findRepositories(String username, Instant fetchedAfter) {
+        return databaseClient.sql(FIND_REPOSITORIES)
+                .bind("username", username)
+                .bind("fetchedAfter", timestamp(fetchedAfter))
+                .map(row -> new RepositoryRow(row.get("etag", String.class), row.get("last_modified", String.class),
+                        row.get("fetched_at", OffsetDateTime.class), row.get("repository_name", String.class),
+                        row.get("owner_login", String.class), row.get("pushed_at", OffsetDateTime.class),
+                        row.get("branch_name", String.class), row.get("commit_sha", String.class)))
+                .all()
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(rows -> {
+                    Map<String, RepositoryInfo> repositories = new LinkedHashMap<>();
+                    for (RepositoryRow row : rows) {
+                        if (row.repositoryName() == null) {
+                            continue;
+                        }
+                        RepositoryInfo repository = repositories.computeIfAbsent(row.repositoryName(),
+                                name -> new RepositoryInfo(name, row.ownerLogin(), new ArrayList<>(),
+                                        row.pushedAt() == null ? null : row.pushedAt().toInstant()));
+                        if (row.branchName() != null) {
+                            repository.branches().add(new BranchInfo(row.branchName(), row.commitSha()));
+                        }
+                    }
+                    RepositoryRow first = rows.get(0);
+                    return new Snapshot<>(repositories.values().stream()
+                            .map(repository -> new RepositoryInfo(repository.name(), repository.ownerLogin(),
+                                    List.copyOf(repository.branches()), repository.pushedAt()))
+                            .toList(), first.etag(), first.lastModified(), first.fetchedAt().toInstant());
+                });
+    }
+
+    public Mono<Snapshot<BranchInfo>> findBranches(String username, String repository, Instant fetchedAfter) {
+        return databaseClient.sql(FIND_BRANCHES)
+                .bind("username", username)
+                .bind("name", key(repository))
+                .bind("fetchedAfter", timestamp(fetchedAfter))
+                .map(row -> new BranchRow(row.get("branches_etag", String.class),
+                        row.get("branches_last_modified", String.class),
+                        row.get("branches_fetched_at", OffsetDateTime.class), row.get("branch_name", String.class),
+                        row.get("commit_sha", String.class)))
+                .all()
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(rows -> new Snapshot<>(rows.stream()
+                        .filter(row -> row.branchName() != null)
+                        .map(row -> new BranchInfo(row.branchName(), row.commitSha()))
+                        .toList(), rows.get(0).etag(), rows.get(0).lastModified(),
+                        rows.get(0).fetchedAt().toInstant()));
+    }
+
+    public Flux<String> findRecentUsernames(Instant fetchedAfter, int limit) {
+        return databaseClient.sql(FIND_RECENT_USERNAMES)
+                .bind("fetchedAfter", timestamp(fetchedAfter))
+                .bind("limit", limit)
+                .map(row -> row.get("username", String.class))
+                .all();
+    }
+
+    public Mono<Void> saveRepositories(String username, Snapshot<RepositoryInfo> snapshot) {
+        Map<String, Object> user = Map.of("username", username,
+                "etag", text(snapshot.etag()),
+                "lastModified", text(snapshot.lastModified()),
+                "fetchedAt", timestamp(snapshot.fetchedAt()));
+        return updateOrInsert(UPDATE_USER, USER_EXISTS, INSERT_USER, user)
+                .filter(Boolean::booleanValue)
+                .flatMap(newest -> deleteDroppedRepositories(username, snapshot.data())
+                        .thenMany(Flux.range(0, snapshot.data().size())
+                                .concatMap(position -> saveListedRepository(username,
+                                        snapshot.data().get(position), position, snapshot.fetchedAt())))
+                        .then())
+                .then();
+    }
+
+    public Mono<Void> saveBranches(String username, String repository, Snapshot<BranchInfo> snapshot) {
+        Map<String, Object> branches = Map.of("username", username,
+                "name", key(repository),
+                "displayName", Parameters.in(String.class),
+                "ownerLogin", username,
+                "position", Parameters.in(Integer.class),
+                "pushedAt", Parameters.in(OffsetDateTime.class),
+                "etag", text(snapshot.etag()),
+                "lastModified", text(snapshot.lastModified()),
+                "fetchedAt", timestamp(snapshot.fetchedAt()));
+        return updateOrInsert(UPDATE_BRANCHES, REPOSITORY_EXISTS, INSERT_REPOSITORY, branches)
+                .filter(Boolean::booleanValue)
+                .flatMap(newest -> replaceBranches(username, key(repository), snapshot.data()));
+    }
+
+    public Mono<Void> expireRepositories(String username) {
+        return update(EXPIRE_USER, Map.of("username", username, "expiredAt", timestamp(Instant.EPOCH))).then();
+    }
+
+    public Mono<Void> expireBranches(String username, String repository) {
+        return update(EXPIRE_BRANCHES, Map.of("username", username, "name", key(repository),
+                "expiredAt", timestamp(Instant.EPOCH))).then();
+    }
+
+    private Mono<Void> saveListedRepository(String username, RepositoryInfo repository, int position,
+                                            Instant fetchedAt) {
+        // Branch validators belong to the branch list they were fetched with, so they are dropped when the
+        // repository list brings a newer one
+        Map<String, Object> listed = Map.of("username", username,
+                "name", key(repository.name()),
+                "displayName", repository.name(),
+                "ownerLogin", repository.ownerLogin(),
+                "position", position,
+                "pushedAt", repository.pushedAt() == null ? Parameters.in(OffsetDateTime.class)
+                        : timestamp(repository.pushedAt()),
+                "etag", Parameters.in(String.class),
+                "lastModified", Parameters.in(String.class),
+                "fetchedAt", timestamp(fetchedAt));
+        return update(LIST_REPOSITORY, listed)
+                .flatMap(updated -> updated > 0
+                        ? update(UPDATE_BRANCHES, listed).map(replaced -> replaced > 0)
+                        : update(INSERT_REPOSITORY, listed).thenReturn(true))
+                .filter(Boolean::booleanValue)
+                .flatMap(newest -> replaceBranches(username, key(repository.name()), repository.branches()));
+    }
+
+    private Mono<Void> deleteDroppedRepositories(String username, List<RepositoryInfo> repositories) {
+        if (repositories.isEmpty()) {
+            return update(DELETE_LISTED_REPOSITORIES, Map.of("username", username)).then();
+        }
+        return update(DELETE_DROPPED_REPOSITORIES, Map.of("username", username,
+                "names", repositories.stream().map(repository -> key(repository.name())).toList())).then();
+    }
+
+    private Mono<Void> replaceBranches(String username, String repository, List<BranchInfo> branches) {
+        Mono<Long> delete = update(DELETE_BRANCHES, Map.of("username", username, "name", repository));
+        if (branches.isEmpty()) {
+            return delete.then();
+        }
+        return delete.thenMany(databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(INSERT_BRANCH);
+            for (int i = 0; i < branches.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                BranchInfo branch = branches.get(i);
+                statement.bind(0, username).bind(1, repository).bind(2, branch.name()).bind(4, i);
+                if (branch.commitSha() == null) {
+                    statement.bindNull(3, String.class);
+                } else {
+                    statement.bind(3, branch.commitSha());
+                }
+            }
+            return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+        })).then();
+    }
+
+    // Returns whether the row now holds this write: updated or inserted, rather than kept because it is newer
+    private Mono<Boolean> updateOrInsert(String update, String exists, String insert, Map<String, Object> values) {
+        return update(update, values)
+                .flatMap(updated -> updated > 0
+                        ? Mono.just(true)
+                        : statement(exists, values)
+                                .map(row -> row.get(0, Long.class))
+                                .one()
+                                .flatMap(count -> count > 0
+                                        ? Mono.just(false)
+                                        : update(insert, values).thenReturn(true)));
+    }
+
+    private Mono<Long> update(String sql, Map<String, Object> values) {
+        return statement(sql, values)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // Writes share one map of values across statements; the driver rejects names a statement does not use
+    private DatabaseClient.GenericExecuteSpec statement(String sql, Map<String, Object> values) {
+        DatabaseClient.GenericExecuteSpec statement = databaseClient.sql(sql);
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            if (Pattern.compile(":" + value.getKey() + "\\b").matcher(sql).find()) {
+                statement = statement.bind(value.getKey(), value.getValue());
+            }
+        }
+        return statement;
+    }
+
+    private static String key(String repository) {
+        return repository.toLowerCase(Locale.ROOT);
+    }
+
+    private static Object text(String value) {
+        return value == null ? Parameters.in(String.class) : value;
+    }
+
+    private static OffsetDateTime timestamp(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    private record RepositoryRow(String etag, String lastModified, OffsetDateTime fetchedAt, String repositoryName,
+                                 String ownerLogin, OffsetDateTime pushedAt, String branchName, String commitSha) {
+    }
+
+    private record BranchRow(String etag, String lastModified, OffsetDateTime fetchedAt, String branchName,
+                             String commitSha) {
+    }
+}
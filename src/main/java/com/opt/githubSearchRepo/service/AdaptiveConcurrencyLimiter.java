@@ -0,0 +1,157 @@
+package com.opt.githubSearchRepo.service;
+
+import com.opt.githubSearchRepo.exception.GithubRateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Bounds how many branch lists are fetched from GitHub at once, across all requests, with an AIMD limit learned from
+// every GitHub call it sees as a filter. The limit grows by about one per round of calls while they are answered
+// promptly, and is cut by backoff-ratio when a call is throttled (429, a rate limited 403, or shed by the token
+// pool), fails, or takes latency-tolerance times longer than the running average. Calls that started before the
+// last cut do not cut it again, so one burst of throttled responses costs one cut rather than one per response.
+@Component
+@Slf4j
+public class AdaptiveConcurrencyLimiter implements ExchangeFilterFunction {
+    private static final double AVERAGE_WEIGHT = 0.05;
+    private static final String THROTTLED = "throttled";
+    private static final String LATENCY = "latency";
+    private static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final PermitQueue permits = new PermitQueue(this::currentLimit);
+    private double limit;
+    private double averageLatencyNanos;
+    private long lastCutNanos = Long.MIN_VALUE;
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${github.fanout.initial-limit:10}") int initialLimit,
+                                      @Value("${github.fanout.min-limit:1}") int minLimit,
+                                      @Value("${github.fanout.max-limit:100}") int maxLimit,
+                                      @Value("${github.fanout.backoff-ratio:0.7}") double backoffRatio,
+                                      @Value("${github.fanout.latency-tolerance:2.0}") double latencyTolerance) {
+        this.meterRegistry = meterRegistry;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        Gauge.builder("github.fanout.limit", this, AdaptiveConcurrencyLimiter::currentLimit)
+                .description("Repositories allowed to fetch their branches from GitHub at once")
+                .register(meterRegistry);
+        Gauge.builder("github.fanout.in-flight", this, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Repositories currently fetching their branches")
+                .register(meterRegistry);
+        Gauge.builder("github.fanout.waiting", this, AdaptiveConcurrencyLimiter::waiting)
+                .description("Repositories queued for the fan-out limit")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> withPermit(Mono<T> task) {
+        return permits.withPermit(task);
+    }
+
+    public <T> Flux<T> withPermit(Flux<T> task) {
+        return permits.withPermit(task);
+    }
+
+    public synchronized int currentLimit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return permits.held();
+    }
+
+    public int waiting() {
+        return permits.waiting();
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            return next.exchange(request)
+                    .doOnNext(response -> onResponse(startedAt, System.nanoTime(), response))
+                    .doOnError(e -> cut(startedAt, e instanceof GithubRateLimitExceededException ? THROTTLED : ERROR));
+        });
+    }
+
+    void onResponse(long startedAt, long finishedAt, ClientResponse response) {
+        if (isThrottled(response)) {
+            cut(startedAt, THROTTLED);
+            return;
+        }
+        long latency = finishedAt - startedAt;
+        boolean slow;
+        synchronized (this) {
+            slow = averageLatencyNanos > 0 && latency > averageLatencyNanos * latencyTolerance;
+            averageLatencyNanos = averageLatencyNanos == 0
+                    ? latency
+                    : averageLatencyNanos + AVERAGE_WEIGHT * (latency - averageLatencyNanos);
+        }
+        if (slow) {
+            cut(startedAt, LATENCY);
+        } else {
+            grow();
+        }
+    }
+
+    private static boolean isThrottled(ClientResponse response) {
+        if (response.statusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return true;
+        }
+        // GitHub answers 403 both for missing permissions and for exhausted or secondary rate limits
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        return response.statusCode().value() == HttpStatus.FORBIDDEN.value()
+                && (headers.containsKey(HttpHeaders.RETRY_AFTER)
+                || "0".equals(headers.getFirst(GithubTokenPool.RATE_LIMIT_REMAINING)));
+    }
+
+    // Only grows while the fan-out actually uses at least half of the limit, so an idle period does not leave a
+    // limit that was never tested against GitHub
+    private void grow() {
+        int inFlight = inFlight();
+        synchronized (this) {
+            if (inFlight * 2 < limit || limit >= maxLimit) {
+                return;
+            }
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        permits.grantWaiters();
+    }
+
+    private void cut(long startedAt, String reason) {
+        synchronized (this) {
+            if (startedAt < lastCutNanos || limit <= minLimit) {
+                return;
+            }
+            lastCutNanos = System.nanoTime();
+            limit = Math.max(minLimit, limit * backoffRatio);
+            log.info("Cut the GitHub fan-out limit to {} ({})", (int) limit, reason);
+        }
+        cuts(reason).increment();
+    }
+
+    private Counter cuts(String reason) {
+        return Counter.builder("github.fanout.limit.cuts")
+                .tag("reason", reason)
+                .description("Times the fan-out limit was cut, by the GitHub response that caused it")
+                .register(meterRegistry);
+    }
+}
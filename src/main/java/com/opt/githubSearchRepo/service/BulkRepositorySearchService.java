@@ -0,0 +1,93 @@
+package com.opt.githubSearchRepo.service;
+
+import com.opt.githubSearchRepo.dto.UserRepositories;
+import com.opt.githubSearchRepo.exception.ErrorResponse;
+import com.opt.githubSearchRepo.exception.GithubRateLimitExceededException;
+import com.opt.githubSearchRepo.exception.InvalidRequestException;
+import com.opt.githubSearchRepo.exception.UserNotFoundException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Slf4j
+public class BulkRepositorySearchService {
+    private final GithubService githubService;
+    private final ConcurrencyBudget concurrencyBudget;
+    private final int perRequestConcurrency;
+    private final int maxUsernames;
+
+    public BulkRepositorySearchService(GithubService githubService, ConcurrencyBudget concurrencyBudget,
+                                       @Value("${github.bulk.per-request-concurrency:2}") int perRequestConcurrency,
+                                       @Value("${github.bulk.max-usernames:1000}") int maxUsernames) {
+        this.githubService = githubService;
+        this.concurrencyBudget = concurrencyBudget;
+        this.perRequestConcurrency = perRequestConcurrency;
+        this.maxUsernames = maxUsernames;
+    }
+
+    public Flux<UserRepositories> getNonForkRepositories(List<String> usernames) {
+        return Flux.defer(() -> {
+            Set<String> distinct = distinct(usernames);
+            if (distinct.isEmpty() || distinct.size() > maxUsernames) {
+                return Flux.error(new InvalidRequestException(
+                        "Between 1 and " + maxUsernames + " usernames are required"));
+            }
+            log.info("Fetching non-fork repositories for {} users", distinct.size());
+            // Each batch queues at most perRequestConcurrency users for the shared budget at a time, so a large
+            // batch cannot take every permit ahead of batches that arrive after it.
+            return Flux.fromIterable(distinct)
+                    .flatMap(this::fetchUser, perRequestConcurrency);
+        });
+    }
+
+    private Mono<UserRepositories> fetchUser(String username) {
+        return concurrencyBudget.withPermit(githubService.getNonForkRepositories(username).collectList())
+                .map(repositories -> UserRepositories.success(username, repositories))
+                .onErrorResume(ex -> {
+                    log.warn("Bulk fetch failed for user {}: {}", username, ex.getMessage());
+                    return Mono.just(UserRepositories.failure(username, toErrorResponse(ex)));
+                });
+    }
+
+    private static Set<String> distinct(List<String> usernames) {
+        Set<String> distinct = new LinkedHashSet<>();
+        if (usernames != null) {
+            usernames.stream()
+                    .filter(Objects::nonNull)
+                    .map(String::trim)
+                    .filter(username -> !username.isEmpty())
+                    .forEach(distinct::add);
+        }
+        return distinct;
+    }
+
+    private static ErrorResponse toErrorResponse(Throwable ex) {
+        if (ex instanceof UserNotFoundException || ex instanceof WebClientResponseException.NotFound) {
+            return new ErrorResponse(HttpStatus.NOT_FOUND.value(), "This user does not exist");
+        }
+        if (ex instanceof GithubRateLimitExceededException) {
+            return new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(), "GitHub API rate limit exceeded!");
+        }
+        if (ex instanceof WebClientResponseException.Forbidden) {
+            return new ErrorResponse(HttpStatus.FORBIDDEN.value(), "GitHub API rate limit exceeded!");
+        }
+        if (ex instanceof WebClientResponseException responseException) {
+            return new ErrorResponse(responseException.getStatusCode().value(),
+                    "An error occurred while accessing the GitHub API: " + ex.getMessage());
+        }
+        if (ex instanceof TimeoutException) {
+            return new ErrorResponse(HttpStatus.GATEWAY_TIMEOUT.value(), "GitHub API did not respond in time");
+        }
+        return new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(), "An unexpected error occurred!");
+    }
+}
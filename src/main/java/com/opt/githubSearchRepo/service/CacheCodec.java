@@ -0,0 +1,15 @@
+package com.opt.githubSearchRepo.service;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface CacheCodec {
+
+    String name();
+
+    boolean canDecode(byte[] bytes);
+
+    byte[] encode(List<?> values) throws IOException;
+
+    <T> List<T> decode(byte[] bytes, Class<T> type) throws IOException;
+}
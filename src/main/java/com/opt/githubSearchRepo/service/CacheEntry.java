@@ -0,0 +1,28 @@
+package com.opt.githubSearchRepo.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+public record CacheEntry<T>(List<T> data, String etag, String lastModified, Instant freshUntil) {
+
+    public boolean isFresh() {
+        return Instant.now().isBefore(freshUntil);
+    }
+
+    public boolean isServableWhileRevalidating(Duration staleWhileRevalidate) {
+        return Instant.now().isBefore(freshUntil.plus(staleWhileRevalidate));
+    }
+
+    public boolean expiresWithin(Duration window) {
+        return !Instant.now().plus(window).isBefore(freshUntil);
+    }
+
+    public boolean hasValidators() {
+        return etag != null || lastModified != null;
+    }
+
+    public CacheEntry<T> withFreshUntil(Instant freshUntil) {
+        return new CacheEntry<>(data, etag, lastModified, freshUntil);
+    }
+}
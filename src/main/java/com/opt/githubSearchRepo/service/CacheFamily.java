@@ -0,0 +1,49 @@
+package com.opt.githubSearchRepo.service;
+
+import java.util.Locale;
+
+public enum CacheFamily {
+    REPOSITORIES("repositories"),
+    // The repository list without branches, for queries that leave them out or only need them for one page
+    REPOSITORY_LIST("repository-list"),
+    BRANCHES("branches");
+
+    private static final String REPOSITORIES_PREFIX = "repos-";
+    // GitHub names never contain a colon, so no branches key starts with this
+    private static final String REPOSITORY_LIST_PREFIX = "repo-list:";
+
+    private final String cacheName;
+
+    CacheFamily(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    public String cacheName() {
+        return cacheName;
+    }
+
+    public static CacheFamily of(String key) {
+        if (key.startsWith(REPOSITORY_LIST_PREFIX)) {
+            return REPOSITORY_LIST;
+        }
+        return key.startsWith(REPOSITORIES_PREFIX) ? REPOSITORIES : BRANCHES;
+    }
+
+    // GitHub logins and repository names are case-insensitive, so /users/Octocat and a webhook for octocat share
+    // one entry
+    public static String repositoriesKey(String username) {
+        return REPOSITORIES_PREFIX + normalize(username);
+    }
+
+    public static String repositoryListKey(String username) {
+        return REPOSITORY_LIST_PREFIX + normalize(username);
+    }
+
+    public static String branchesKey(String username, String repoName) {
+        return normalize(username) + "-" + normalize(repoName);
+    }
+
+    public static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,42 @@
+package com.opt.githubSearchRepo.service;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CachePolicies {
+    private final CachePolicy repositories;
+    private final CachePolicy branches;
+
+    @Autowired
+    public CachePolicies(@Value("${github.cache.repositories.ttl:10m}") Duration repositoriesTtl,
+                         @Value("${github.cache.repositories.ttl-jitter:0.1}") double repositoriesTtlJitter,
+                         @Value("${github.cache.repositories.stale-while-revalidate:5m}")
+                         Duration repositoriesStaleWhileRevalidate,
+                         @Value("${github.cache.repositories.refresh-ahead:1m}") Duration repositoriesRefreshAhead,
+                         @Value("${github.cache.branches.ttl:10m}") Duration branchesTtl,
+                         @Value("${github.cache.branches.ttl-jitter:0.1}") double branchesTtlJitter,
+                         @Value("${github.cache.branches.stale-while-revalidate:5m}")
+                         Duration branchesStaleWhileRevalidate,
+                         @Value("${github.cache.branches.refresh-ahead:1m}") Duration branchesRefreshAhead) {
+        this(new CachePolicy(repositoriesTtl, repositoriesTtlJitter, repositoriesStaleWhileRevalidate,
+                        repositoriesRefreshAhead),
+                new CachePolicy(branchesTtl, branchesTtlJitter, branchesStaleWhileRevalidate, branchesRefreshAhead));
+    }
+
+    public CachePolicies(CachePolicy repositories, CachePolicy branches) {
+        this.repositories = repositories;
+        this.branches = branches;
+    }
+
+    // The repository list without branches comes from the same GitHub call as the full one
+    public CachePolicy get(CacheFamily family) {
+        return family == CacheFamily.BRANCHES ? branches : repositories;
+    }
+
+    public CachePolicy forKey(String key) {
+        return get(CacheFamily.of(key));
+    }
+}
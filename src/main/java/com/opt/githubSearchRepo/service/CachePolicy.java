@@ -0,0 +1,13 @@
+package com.opt.githubSearchRepo.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+public record CachePolicy(Duration ttl, double ttlJitter, Duration staleWhileRevalidate, Duration refreshAhead) {
+
+    public Instant freshUntil(Instant now) {
+        double factor = 1 + ttlJitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return now.plusMillis(Math.round(ttl.toMillis() * factor));
+    }
+}
@@ -0,0 +1,101 @@
+package com.opt.githubSearchRepo.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class CacheSerializer {
+    private static final byte GZIP_MAGIC_FIRST = (byte) 0x1f;
+    private static final byte GZIP_MAGIC_SECOND = (byte) 0x8b;
+
+    private final List<CacheCodec> codecs;
+    private final CacheCodec writeCodec;
+    private final int compressionThreshold;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public CacheSerializer(MeterRegistry meterRegistry,
+                           @Value("${github.cache.codec:smile}") String codec,
+                           @Value("${github.cache.compression-threshold:4096}") int compressionThreshold) {
+        this(meterRegistry, List.of(JacksonCacheCodec.smile(), JacksonCacheCodec.json()), codec,
+                compressionThreshold);
+    }
+
+    public CacheSerializer(MeterRegistry meterRegistry, List<CacheCodec> codecs, String codec,
+                           int compressionThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.codecs = codecs;
+        this.writeCodec = codecs.stream()
+                .filter(candidate -> candidate.name().equals(codec))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown cache codec: " + codec));
+        this.compressionThreshold = compressionThreshold;
+        log.info("Caching with the {} codec, compressing entries of {} bytes or more", codec, compressionThreshold);
+    }
+
+    public byte[] serialize(List<?> values) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        byte[] encoded = writeCodec.encode(values);
+        boolean compressed = compressionThreshold > 0 && encoded.length >= compressionThreshold;
+        byte[] bytes = compressed ? gzip(encoded) : encoded;
+        sample.stop(timer("cache.codec.encode", writeCodec.name(), compressed));
+        DistributionSummary.builder("cache.codec.size")
+                .description("Size of serialized cache entries")
+                .baseUnit("bytes")
+                .tags("codec", writeCodec.name(), "compressed", String.valueOf(compressed))
+                .register(meterRegistry)
+                .record(bytes.length);
+        return bytes;
+    }
+
+    public <T> List<T> deserialize(byte[] bytes, Class<T> type) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean compressed = isGzip(bytes);
+        byte[] encoded = compressed ? gunzip(bytes) : bytes;
+        CacheCodec codec = codecs.stream()
+                .filter(candidate -> candidate.canDecode(encoded))
+                .findFirst()
+                .orElseThrow(() -> new IOException("No cache codec recognises the stored entry"));
+        List<T> values = codec.decode(encoded, type);
+        sample.stop(timer("cache.codec.decode", codec.name(), compressed));
+        return values;
+    }
+
+    private Timer timer(String name, String codec, boolean compressed) {
+        return Timer.builder(name)
+                .description("Time spent converting cache entries")
+                .tags("codec", codec, "compressed", String.valueOf(compressed))
+                .register(meterRegistry);
+    }
+
+    private static boolean isGzip(byte[] bytes) {
+        return bytes.length > 1 && bytes[0] == GZIP_MAGIC_FIRST && bytes[1] == GZIP_MAGIC_SECOND;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return gzip.readAllBytes();
+        }
+    }
+}
@@ -1,59 +1,337 @@
 package com.opt.githubSearchRepo.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.opt.githubSearchRepo.config.ExecutionConfig;
+import com.opt.githubSearchRepo.repository.Snapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
 
 @Service
 @Slf4j
 public class CacheService {
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private static final String CACHE_NAME = "github";
+    private static final String MESSAGE_SEPARATOR = "|";
+    private static final String TIER_L1 = "l1";
+    private static final String TIER_L2 = "l2";
+    private static final String TIER_NONE = "none";
+    private static final String HIT = "hit";
+    private static final String MISS = "miss";
+    private static final List<String> FIELDS = List.of("data", "etag", "lastModified", "freshUntil");
+    // Writes only when the stored entry was not fetched later than this one, so an older response that finishes
+    // last never replaces newer data, while refreshes can overwrite entries that are still fresh.
+    private static final RedisScript<Long> PUT_SCRIPT = RedisScript.of("""
+            local fetchedAt = redis.call('HGET', KEYS[1], 'fetchedAt')
+            if fetchedAt and tonumber(fetchedAt) > tonumber(ARGV[5]) then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'data', ARGV[1], 'etag', ARGV[2],
+                    'lastModified', ARGV[3], 'freshUntil', ARGV[4], 'fetchedAt', ARGV[5])
+            redis.call('PEXPIRE', KEYS[1], ARGV[6])
+            return 1
+            """, Long.class);
+    // Writes only while the entry is still the one the change was applied to, identified by its freshUntil, so two
+    // concurrent updates of the same key never silently drop one another.
+    private static final RedisScript<Long> UPDATE_SCRIPT = RedisScript.of("""
+            if redis.call('HGET', KEYS[1], 'freshUntil') ~= ARGV[7] then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'data', ARGV[1], 'etag', ARGV[2],
+                    'lastModified', ARGV[3], 'freshUntil', ARGV[4], 'fetchedAt', ARGV[5])
+            redis.call('PEXPIRE', KEYS[1], ARGV[6])
+            return 1
+            """, Long.class);
+    private static final RedisScript<Long> TOUCH_SCRIPT = RedisScript.of("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'freshUntil', ARGV[1])
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+    private final ReactiveRedisTemplate<String, byte[]> redisTemplate;
+    private final CacheSerializer serializer;
+    private final CachePolicies policies;
+    private final MeterRegistry meterRegistry;
+    private final Duration revalidationWindow;
+    private final String invalidationChannel;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Cache<String, CacheEntry<?>> localCache;
+    private final Scheduler cacheScheduler;
+    private final Scheduler blockingScheduler;
+    private Disposable invalidationSubscription;
 
-    public CacheService(RedisTemplate<String, Object> redisTemplate) {
+    public CacheService(ReactiveRedisTemplate<String, byte[]> redisTemplate,
+                        CacheSerializer serializer,
+                        MeterRegistry meterRegistry,
+                        CachePolicies policies,
+                        @Value("${github.cache.revalidation-window:1h}") Duration revalidationWindow,
+                        @Value("${github.cache.local.max-size:10000}") long localMaxSize,
+                        @Value("${github.cache.local.ttl:1m}") Duration localTtl,
+                        @Value("${github.cache.invalidation-channel:github-cache-invalidation}")
+                        String invalidationChannel,
+                        @Qualifier(ExecutionConfig.CACHE_SCHEDULER) Scheduler cacheScheduler,
+                        @Qualifier(ExecutionConfig.BLOCKING_SCHEDULER) Scheduler blockingScheduler) {
         this.redisTemplate = redisTemplate;
-        this.objectMapper = new ObjectMapper();
+        this.serializer = serializer;
+        this.policies = policies;
+        this.meterRegistry = meterRegistry;
+        this.revalidationWindow = revalidationWindow;
+        this.invalidationChannel = invalidationChannel;
+        this.cacheScheduler = cacheScheduler;
+        this.blockingScheduler = blockingScheduler;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, CACHE_NAME, Tags.of("tier", TIER_L1));
     }
 
-    public <T> Flux<T> getFromCacheAsFlux(String key, Class<T> type) {
-        return Flux.defer(() -> {
-            String data = (String) redisTemplate.opsForValue().get(key);
-            if (data != null) {
-                try {
-                    List<T> cachedList = objectMapper.readValue(data, new TypeReference<List<T>>() {});
-                    log.info("Successfully retrieved data from cache for key: {}", key);
-                    return Flux.fromIterable(cachedList);
-                } catch (JsonProcessingException e) {
-                    log.error("Error deserializing data from cache for key {}: {}", key, e.getMessage());
-                }
+    @PostConstruct
+    public void subscribeToInvalidations() {
+        invalidationSubscription = Flux.defer(() -> redisTemplate.listenToChannel(invalidationChannel))
+                .subscribeOn(blockingScheduler)
+                .map(message -> new String(message.getMessage(), StandardCharsets.UTF_8))
+                .filter(payload -> !payload.startsWith(instanceId + MESSAGE_SEPARATOR))
+                .map(payload -> payload.substring(payload.indexOf(MESSAGE_SEPARATOR) + 1))
+                .doOnNext(key -> {
+                    localCache.invalidate(key);
+                    log.debug("Invalidated local cache entry for key: {}", key);
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Cache invalidation subscription failed: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void unsubscribeFromInvalidations() {
+        if (invalidationSubscription != null) {
+            invalidationSubscription.dispose();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<CacheEntry<T>> getEntry(String key, Class<T> type) {
+        return Mono.defer(() -> {
+            CacheFamily family = CacheFamily.of(key);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            CacheEntry<T> local = (CacheEntry<T>) localCache.getIfPresent(key);
+            if (local != null && local.isFresh()) {
+                log.debug("Retrieved data from local cache for key: {}", key);
+                sample.stop(lookupTimer(family, TIER_L1, HIT));
+                return Mono.just(local);
             }
-            return Flux.empty();
+            Mono<CacheEntry<T>> fromRedis = getFromRedis(key, family, type)
+                    .doOnNext(entry -> localCache.put(key, entry));
+            return (local != null ? fromRedis.defaultIfEmpty(local) : fromRedis)
+                    .doOnSuccess(entry -> sample.stop(entry == null
+                            ? lookupTimer(family, TIER_NONE, MISS)
+                            : lookupTimer(family, entry == local ? TIER_L1 : TIER_L2, HIT)));
         });
     }
 
-    public <T> void putInCacheAsFlux(String key, List<T> data) {
-        if (!redisTemplate.hasKey(key)) {
-            try {
-                redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(data));
-                log.info("Successfully cached data for key: {}", key);
-            } catch (JsonProcessingException e) {
-                log.error("Error serializing data for caching with key {}: {}", key, e.getMessage());
-            }
-        } else {
-            log.info("Key {} already exists in cache. Skipping cache update.", key);
-        }
+    public <T> Mono<Boolean> putInCache(String key, List<T> data, String etag, String lastModified) {
+        return putInCache(key, new Snapshot<>(data, etag, lastModified, Instant.now()));
+    }
+
+    // Stores data fetched at the snapshot's time, which decides both its freshness and whether it may replace what
+    // Redis already holds, so snapshots restored from Postgres never overwrite newer entries.
+    public <T> Mono<Boolean> putInCache(String key, Snapshot<T> snapshot) {
+        return write(key, snapshot, PUT_SCRIPT, List.of());
+    }
+
+    // Applies a change to a fresh entry in place and stores the result as fetched now, without validators since they
+    // describe the data before the change. Empty when there is no fresh entry, the change gives up by returning
+    // null, or the entry was replaced in the meantime; callers evict in that case.
+    public <T> Mono<Snapshot<T>> update(String key, Class<T> type, UnaryOperator<List<T>> change) {
+        return getEntry(key, type)
+                .filter(CacheEntry::isFresh)
+                .flatMap(entry -> Mono.justOrEmpty(change.apply(entry.data()))
+                        .map(data -> new Snapshot<>(data, null, null, Instant.now()))
+                        .flatMap(snapshot -> write(key, snapshot, UPDATE_SCRIPT,
+                                List.of(bytes(entry.freshUntil().toEpochMilli())))
+                                .filter(Boolean::booleanValue)
+                                .map(stored -> snapshot)));
+    }
+
+    public Mono<Boolean> evict(String key) {
+        localCache.invalidate(key);
+        return redisTemplate.delete(key)
+                .flatMap(deleted -> publishInvalidation(key).thenReturn(deleted > 0))
+                .doOnNext(deleted -> log.info("Evicted cache entry for key: {}", key))
+                .onErrorResume(e -> {
+                    log.error("Error evicting cache entry for key {}: {}", key, e.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    private <T> Mono<Boolean> write(String key, Snapshot<T> snapshot, RedisScript<Long> script,
+                                    List<byte[]> conditions) {
+        CacheEntry<T> entry = new CacheEntry<>(snapshot.data(), snapshot.etag(), snapshot.lastModified(),
+                policies.forKey(key).freshUntil(snapshot.fetchedAt()));
+        localCache.put(key, entry);
+        CacheFamily family = CacheFamily.of(key);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return Mono.fromCallable(() -> serializer.serialize(snapshot.data()))
+                .subscribeOn(cacheScheduler)
+                .flatMapMany(bytes -> {
+                    List<byte[]> args = new ArrayList<>(List.of(bytes,
+                            bytes(Objects.toString(snapshot.etag(), "")),
+                            bytes(Objects.toString(snapshot.lastModified(), "")),
+                            bytes(entry.freshUntil().toEpochMilli()),
+                            bytes(snapshot.fetchedAt().toEpochMilli()),
+                            bytes(retention(Instant.now(), entry).toMillis())));
+                    args.addAll(conditions);
+                    return redisTemplate.execute(script, List.of(key), args);
+                })
+                .next()
+                .flatMap(stored -> {
+                    if (stored == 1L) {
+                        log.info("Successfully cached data for key: {}", key);
+                        sample.stop(writeTimer(family, "stored"));
+                        return publishInvalidation(key).thenReturn(true);
+                    }
+                    log.info("Key {} already holds newer data in cache. Skipping cache update.", key);
+                    localCache.asMap().remove(key, entry);
+                    sample.stop(writeTimer(family, "skipped"));
+                    return Mono.just(false);
+                })
+                .onErrorResume(e -> {
+                    log.error("Error caching data for key {}: {}", key, e.getMessage());
+                    sample.stop(writeTimer(family, "error"));
+                    return Mono.just(false);
+                });
+    }
+
+    public <T> Flux<T> cacheOnComplete(String key, Flux<T> items, String etag, String lastModified) {
+        return cacheOnComplete(key, items, etag, lastModified, snapshot -> {
+        });
+    }
+
+    public <T> Flux<T> cacheOnComplete(String key, Flux<T> items, String etag, String lastModified,
+                                       Consumer<Snapshot<T>> onCached) {
+        return Flux.defer(() -> {
+            List<T> collected = new ArrayList<>();
+            return items.doOnNext(collected::add)
+                    .doOnComplete(() -> {
+                        Snapshot<T> snapshot = new Snapshot<>(collected, etag, lastModified, Instant.now());
+                        putInCache(key, snapshot).subscribe();
+                        onCached.accept(snapshot);
+                    });
+        });
+    }
+
+    public <T> Mono<CacheEntry<T>> touch(String key, CacheEntry<T> entry) {
+        Instant now = Instant.now();
+        CacheEntry<T> refreshed = entry.withFreshUntil(policies.forKey(key).freshUntil(now));
+        localCache.put(key, refreshed);
+        return redisTemplate.execute(TOUCH_SCRIPT, List.of(key), List.of(
+                        bytes(refreshed.freshUntil().toEpochMilli()),
+                        bytes(retention(now, refreshed).toMillis())))
+                .next()
+                .doOnNext(touched -> log.info("Revalidated cache entry for key: {}", key))
+                .onErrorResume(e -> {
+                    log.error("Error extending cache entry for key {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                })
+                .thenReturn(refreshed);
+    }
+
+    private <T> Mono<CacheEntry<T>> getFromRedis(String key, CacheFamily family, Class<T> type) {
+        return redisTemplate.<String, byte[]>opsForHash().multiGet(key, FIELDS)
+                .filter(values -> values.get(0) != null)
+                .publishOn(cacheScheduler)
+                .<CacheEntry<T>>handle((values, sink) -> {
+                    try {
+                        List<T> data = serializer.deserialize(values.get(0), type);
+                        sink.next(new CacheEntry<>(data, string(values.get(1)), string(values.get(2)),
+                                Instant.ofEpochMilli(Long.parseLong(string(values.get(3))))));
+                        log.info("Successfully retrieved data from cache for key: {}", key);
+                    } catch (Exception e) {
+                        log.error("Error deserializing data from cache for key {}: {}", key, e.getMessage());
+                    }
+                })
+                .doOnNext(entry -> redisCounter(family, HIT).increment())
+                .switchIfEmpty(Mono.fromRunnable(() -> redisCounter(family, MISS).increment()))
+                .onErrorResume(e -> {
+                    log.error("Error reading from cache for key {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Duration retention(Instant now, CacheEntry<?> entry) {
+        Duration fresh = Duration.between(now, entry.freshUntil());
+        return (fresh.isNegative() ? Duration.ZERO : fresh).plus(revalidationWindow);
+    }
+
+    private Mono<Long> publishInvalidation(String key) {
+        return redisTemplate.convertAndSend(invalidationChannel, bytes(instanceId + MESSAGE_SEPARATOR + key))
+                .onErrorResume(e -> {
+                    log.warn("Error publishing cache invalidation for key {}: {}", key, e.getMessage());
+                    return Mono.just(0L);
+                });
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(long value) {
+        return bytes(String.valueOf(value));
+    }
+
+    private static String string(byte[] value) {
+        return value == null || value.length == 0 ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private Counter redisCounter(CacheFamily family, String result) {
+        return Counter.builder("cache.gets")
+                .tags("cache", family.cacheName(), "tier", TIER_L2, "result", result)
+                .description("The number of times cache lookup methods have returned a cached or uncached value")
+                .register(meterRegistry);
+    }
+
+    private Timer lookupTimer(CacheFamily family, String tier, String result) {
+        return Timer.builder("cache.lookups")
+                .tags("cache", family.cacheName(), "tier", tier, "result", result)
+                .description("Time to resolve a cache lookup across the local and Redis tiers")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
-    @Async
-    public <T> CompletableFuture<Void> putInCacheAsync(String key, List<T> data) {
-        putInCacheAsFlux(key, data);
-        return CompletableFuture.completedFuture(null);
+    private Timer writeTimer(CacheFamily family, String result) {
+        return Timer.builder("cache.writes")
+                .tags("cache", family.cacheName(), "result", result)
+                .description("Time to serialize and store an entry in Redis")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,173 @@
+package com.opt.githubSearchRepo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.opt.githubSearchRepo.repository.Snapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+@Slf4j
+public class CachingFetcher {
+    private static final int REFRESH_CONCURRENCY = 4;
+    private static final String STALE_WHILE_REVALIDATE = "stale-while-revalidate";
+    private static final String REFRESH_AHEAD = "refresh-ahead";
+
+    private final CacheService cacheService;
+    private final InFlightRequestRegistry inFlightRequests;
+    private final CachePolicies policies;
+    private final MeterRegistry meterRegistry;
+    private final Duration refreshInterval;
+    private final long refreshMinHits;
+    private final Cache<String, TrackedKey<?>> trackedKeys;
+    private Disposable refreshSubscription;
+
+    public CachingFetcher(CacheService cacheService, InFlightRequestRegistry inFlightRequests,
+                          CachePolicies policies, MeterRegistry meterRegistry,
+                          @Value("${github.cache.refresh.interval:30s}") Duration refreshInterval,
+                          @Value("${github.cache.refresh.min-hits:2}") long refreshMinHits,
+                          @Value("${github.cache.refresh.max-tracked-keys:10000}") long maxTrackedKeys) {
+        this.cacheService = cacheService;
+        this.inFlightRequests = inFlightRequests;
+        this.policies = policies;
+        this.meterRegistry = meterRegistry;
+        this.refreshInterval = refreshInterval;
+        this.refreshMinHits = refreshMinHits;
+        this.trackedKeys = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(refreshInterval.multipliedBy(2))
+                .build();
+    }
+
+    @PostConstruct
+    public void startRefreshAhead() {
+        refreshSubscription = Flux.interval(refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refreshPopularEntries())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stopRefreshAhead() {
+        if (refreshSubscription != null) {
+            refreshSubscription.dispose();
+        }
+    }
+
+    public <T> Flux<T> fetch(String key, Class<T> type, Function<CacheEntry<T>, Flux<T>> upstream) {
+        return fetch(key, type, Mono::empty, upstream);
+    }
+
+    // Reads Redis, then the snapshot store, then GitHub. A snapshot only comes back while it is within the store's
+    // own freshness window; it is copied into Redis with its original fetch time, so it expires from there as if
+    // it had never left.
+    public <T> Flux<T> fetch(String key, Class<T> type, Supplier<Mono<Snapshot<T>>> snapshot,
+                             Function<CacheEntry<T>, Flux<T>> upstream) {
+        track(key, type, upstream);
+        return cacheService.getEntry(key, type)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMapMany(cached -> {
+                    CacheEntry<T> entry = cached.orElse(null);
+                    if (entry == null) {
+                        return inFlightRequests.join(key, () -> snapshot.get()
+                                .map(Optional::of)
+                                .defaultIfEmpty(Optional.empty())
+                                .flatMapMany(stored -> stored.isPresent()
+                                        ? restore(key, stored.get())
+                                        : upstream.apply(null)));
+                    }
+                    if (entry.isFresh()) {
+                        return Flux.fromIterable(entry.data());
+                    }
+                    if (entry.isServableWhileRevalidating(policies.forKey(key).staleWhileRevalidate())) {
+                        log.debug("Serving stale entry for key {} while it is refreshed", key);
+                        refreshInBackground(key, entry, upstream);
+                        return Flux.fromIterable(entry.data());
+                    }
+                    return inFlightRequests.join(key, () -> upstream.apply(entry));
+                });
+    }
+
+    // Goes upstream even while the cached entry is fresh, sending its validators so an unchanged list costs a 304
+    public <T> Flux<T> revalidate(String key, Class<T> type, Function<CacheEntry<T>, Flux<T>> upstream) {
+        return cacheService.getEntry(key, type)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMapMany(cached -> inFlightRequests.join(key, () -> upstream.apply(cached.orElse(null))));
+    }
+
+    public int trackedKeys() {
+        return (int) trackedKeys.estimatedSize();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void track(String key, Class<T> type, Function<CacheEntry<T>, Flux<T>> upstream) {
+        TrackedKey<T> tracked = (TrackedKey<T>) trackedKeys.get(key, k -> new TrackedKey<>(type, upstream));
+        tracked.hits().incrementAndGet();
+    }
+
+    private Mono<Void> refreshPopularEntries() {
+        return Flux.fromIterable(List.copyOf(trackedKeys.asMap().entrySet()))
+                .filter(tracked -> tracked.getValue().hits().getAndSet(0) >= refreshMinHits)
+                .flatMap(tracked -> refreshIfExpiringSoon(tracked.getKey(), tracked.getValue()), REFRESH_CONCURRENCY)
+                .then();
+    }
+
+    private <T> Mono<Void> refreshIfExpiringSoon(String key, TrackedKey<T> trackedKey) {
+        Duration refreshAhead = policies.forKey(key).refreshAhead();
+        return cacheService.getEntry(key, trackedKey.type())
+                .filter(entry -> entry.isFresh() && entry.expiresWithin(refreshAhead))
+                .flatMap(entry -> {
+                    log.debug("Refreshing popular cache entry {} ahead of expiry", key);
+                    refreshes(key, REFRESH_AHEAD).increment();
+                    return inFlightRequests.join(key, () -> trackedKey.upstream().apply(entry)).then();
+                })
+                .onErrorResume(e -> {
+                    log.warn("Refresh-ahead failed for key {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private <T> Flux<T> restore(String key, Snapshot<T> snapshot) {
+        log.debug("Restoring cache entry for key {} from its stored snapshot", key);
+        cacheService.putInCache(key, snapshot).subscribe();
+        return Flux.fromIterable(snapshot.data());
+    }
+
+    private <T> void refreshInBackground(String key, CacheEntry<T> entry,
+                                         Function<CacheEntry<T>, Flux<T>> upstream) {
+        refreshes(key, STALE_WHILE_REVALIDATE).increment();
+        inFlightRequests.join(key, () -> upstream.apply(entry))
+                .then()
+                .subscribe(null, e -> log.warn("Background refresh failed for key {}: {}", key, e.getMessage()));
+    }
+
+    private Counter refreshes(String key, String trigger) {
+        return Counter.builder("cache.refreshes")
+                .tags("cache", CacheFamily.of(key).cacheName(), "trigger", trigger)
+                .description("Cache entries refreshed in the background")
+                .register(meterRegistry);
+    }
+
+    private record TrackedKey<T>(Class<T> type, Function<CacheEntry<T>, Flux<T>> upstream, AtomicLong hits) {
+
+        private TrackedKey(Class<T> type, Function<CacheEntry<T>, Flux<T>> upstream) {
+            this(type, upstream, new AtomicLong());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.opt.githubSearchRepo.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+@Component
+@Slf4j
+public class ConcurrencyBudget {
+    private final int permits;
+    private final PermitQueue queue;
+
+    public ConcurrencyBudget(MeterRegistry meterRegistry,
+                             @Value("${github.bulk.max-concurrency:8}") int permits) {
+        this.permits = permits;
+        this.queue = new PermitQueue(() -> permits);
+        Gauge.builder("github.bulk.permits.available", this, ConcurrencyBudget::availablePermits)
+                .description("Permits left in the global bulk concurrency budget")
+                .register(meterRegistry);
+        Gauge.builder("github.bulk.permits.waiting", this, ConcurrencyBudget::waiting)
+                .description("Bulk tasks queued for a permit")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> withPermit(Mono<T> task) {
+        return queue.withPermit(task);
+    }
+
+    public int availablePermits() {
+        return permits - queue.held();
+    }
+
+    public int waiting() {
+        return queue.waiting();
+    }
+}
@@ -0,0 +1,54 @@
+package com.opt.githubSearchRepo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+// Times every GitHub call by endpoint template and status.
+@Component
+public class GithubClientMetrics implements ExchangeFilterFunction {
+    public static final String ENDPOINT_ATTRIBUTE = GithubClientMetrics.class.getName() + ".endpoint";
+    private static final String UNKNOWN_ENDPOINT = "none";
+    private static final String IO_ERROR = "IO_ERROR";
+    private static final String CANCELLED = "CANCELLED";
+
+    private final MeterRegistry meterRegistry;
+
+    public GithubClientMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String endpoint = request.attribute(ENDPOINT_ATTRIBUTE).map(Object::toString).orElse(UNKNOWN_ENDPOINT);
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            AtomicBoolean recorded = new AtomicBoolean();
+            // Recorded before the response is handed on, so the call is counted by the time its body is read
+            Consumer<String> record = status -> {
+                if (recorded.compareAndSet(false, true)) {
+                    sample.stop(timer(request.method().name(), endpoint, status));
+                }
+            };
+            return next.exchange(request)
+                    .doOnNext(response -> record.accept(String.valueOf(response.statusCode().value())))
+                    .doOnError(e -> record.accept(IO_ERROR))
+                    .doOnCancel(() -> record.accept(CANCELLED));
+        });
+    }
+
+    private Timer timer(String method, String endpoint, String status) {
+        return Timer.builder("github.client.requests")
+                .tags("method", method, "endpoint", endpoint, "status", status)
+                .description("Calls made to the GitHub API")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,191 @@
+package com.opt.githubSearchRepo.service;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.GitHubGraphQlResponse;
+import com.opt.githubSearchRepo.dto.GitHubGraphQlResponse.Connection;
+import com.opt.githubSearchRepo.dto.GitHubGraphQlResponse.Ref;
+import com.opt.githubSearchRepo.dto.GitHubGraphQlResponse.Repository;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import com.opt.githubSearchRepo.exception.GithubApiException;
+import com.opt.githubSearchRepo.exception.UserNotFoundException;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "github.api.mode", havingValue = "graphql")
+public class GithubGraphQlServiceImpl implements GithubService {
+
+    private static final String GITHUB_SERVICE = "githubService";
+    private static final String GRAPHQL_ENDPOINT = "/graphql";
+    private static final String NOT_FOUND = "NOT_FOUND";
+    private static final String REPOSITORIES_QUERY = """
+            query($login: String!, $cursor: String) {
+              repositoryOwner(login: $login) {
+                repositories(first: 100, after: $cursor, isFork: false, privacy: PUBLIC,
+                             ownerAffiliations: OWNER) {
+                  pageInfo { hasNextPage endCursor }
+                  nodes {
+                    name
+                    owner { login }
+                    pushedAt
+                    refs(refPrefix: "refs/heads/", first: 100) {
+                      pageInfo { hasNextPage endCursor }
+                      nodes { name target { oid } }
+                    }
+                  }
+                }
+              }
+            }""";
+    private static final String BRANCHES_QUERY = """
+            query($owner: String!, $name: String!, $cursor: String) {
+              repository(owner: $owner, name: $name) {
+                name
+                owner { login }
+                refs(refPrefix: "refs/heads/", first: 100, after: $cursor) {
+                  pageInfo { hasNextPage endCursor }
+                  nodes { name target { oid } }
+                }
+              }
+            }""";
+    private static final Duration CALL_TIMEOUT = Duration.ofSeconds(5);
+    private final WebClient webClient;
+    private final CacheService cacheService;
+    private final CachingFetcher cachingFetcher;
+    private final SnapshotStore snapshotStore;
+    private final Duration queryTimeout;
+
+    public GithubGraphQlServiceImpl(WebClient.Builder webClientBuilder, CacheService cacheService,
+                                    CachingFetcher cachingFetcher, SnapshotStore snapshotStore,
+                                    GithubTokenPool tokenPool, GithubClientMetrics clientMetrics,
+                                    @Value("${github.api.base-url:https://api.github.com}") String baseUrl) {
+        if (!tokenPool.isAuthenticated()) {
+            log.warn("GitHub GraphQL mode is enabled without github.tokens; api.github.com will reject requests");
+        }
+        this.webClient = webClientBuilder.baseUrl(baseUrl)
+                .filter(tokenPool)
+                .filter(clientMetrics)
+                .build();
+        this.cacheService = cacheService;
+        this.cachingFetcher = cachingFetcher;
+        this.snapshotStore = snapshotStore;
+        // On top of the wait for a token, so a query the token pool sheds fails with its 429 rather than a timeout
+        this.queryTimeout = tokenPool.maxWait().plus(CALL_TIMEOUT);
+    }
+
+    @Override
+    @CircuitBreaker(name = GITHUB_SERVICE)
+    @Retry(name = GITHUB_SERVICE)
+    public Flux<BranchInfo> getBranches(String username, String repoName) {
+        log.info("Fetching branches for repository via GraphQL: {}/{}", username, repoName);
+        String cacheKey = CacheFamily.branchesKey(username, repoName);
+
+        return cachingFetcher.fetch(cacheKey, BranchInfo.class,
+                        () -> snapshotStore.findBranches(username, repoName),
+                        stale -> cacheService.cacheOnComplete(cacheKey, fetchBranches(username, repoName, null),
+                                null, null, snapshot -> snapshotStore.saveBranches(username, repoName, snapshot)))
+                .doOnComplete(() ->
+                        log.info("Successfully fetched branches for repository: {}/{}", username, repoName));
+    }
+
+    @Override
+    public Flux<RepositoryInfo> getNonForkRepositories(String username) {
+        log.info("Fetching non-fork repositories via GraphQL for user: {}", username);
+        String cacheKey = CacheFamily.repositoriesKey(username);
+
+        return cachingFetcher.fetch(cacheKey, RepositoryInfo.class,
+                        () -> snapshotStore.findRepositories(username),
+                        stale -> cacheService.cacheOnComplete(cacheKey, fetchRepositories(username, null),
+                                null, null, snapshot -> snapshotStore.saveRepositories(username, snapshot)))
+                .doOnComplete(() -> log.info("Successfully fetched repositories for user: {}", username));
+    }
+
+    // Branches come with each repository in the same query, so there is no per-repository call to skip when
+    // pushedAt has not moved; pushedAt is still selected for sorting and for the REST path after a mode switch
+    private Flux<RepositoryInfo> fetchRepositories(String username, String cursor) {
+        return query(REPOSITORIES_QUERY, variables("login", username, "cursor", cursor))
+                .flatMapMany(data -> {
+                    if (data.repositoryOwner() == null) {
+                        return cursor == null
+                                ? Flux.error(new UserNotFoundException("GitHub user not found: " + username))
+                                : Flux.empty();
+                    }
+                    Connection<Repository> repositories = data.repositoryOwner().repositories();
+                    Flux<RepositoryInfo> page = Flux.fromIterable(repositories.nodes())
+                            .flatMap(repository -> cacheService.cacheOnComplete(
+                                            CacheFamily.branchesKey(username, repository.name()),
+                                            branchesOf(repository), null, null)
+                                    .collectList()
+                                    .map(branches -> new RepositoryInfo(repository.name(),
+                                            repository.owner().login(), branches, repository.pushedAt())));
+                    return repositories.pageInfo().hasNextPage()
+                            ? page.concatWith(fetchRepositories(username, repositories.pageInfo().endCursor()))
+                            : page;
+                });
+    }
+
+    private Flux<BranchInfo> fetchBranches(String owner, String name, String cursor) {
+        return query(BRANCHES_QUERY, variables("owner", owner, "name", name, "cursor", cursor))
+                .flatMapMany(data -> data.repository() == null
+                        ? Flux.error(new UserNotFoundException("GitHub repository not found: " + owner + "/" + name))
+                        : branchesOf(data.repository()));
+    }
+
+    private Flux<BranchInfo> branchesOf(Repository repository) {
+        Connection<Ref> refs = repository.refs();
+        if (refs == null) {
+            return Flux.empty();
+        }
+        Flux<BranchInfo> page = Flux.fromIterable(refs.nodes())
+                .map(ref -> new BranchInfo(ref.name(), ref.target().oid()));
+        return refs.pageInfo().hasNextPage()
+                ? page.concatWith(fetchBranches(repository.owner().login(), repository.name(),
+                        refs.pageInfo().endCursor()))
+                : page;
+    }
+
+    private Mono<GitHubGraphQlResponse.Data> query(String query, Map<String, Object> variables) {
+        return webClient.post()
+                .uri(GRAPHQL_ENDPOINT)
+                .attribute(GithubClientMetrics.ENDPOINT_ATTRIBUTE, GRAPHQL_ENDPOINT)
+                .bodyValue(Map.of("query", query, "variables", variables))
+                .retrieve()
+                .bodyToMono(GitHubGraphQlResponse.class)
+                .timeout(queryTimeout)
+                .<GitHubGraphQlResponse.Data>handle((response, sink) -> {
+                    List<GitHubGraphQlResponse.Error> errors = response.errors();
+                    if (errors != null && !errors.isEmpty()) {
+                        sink.error(errors.stream()
+                                .filter(error -> NOT_FOUND.equals(error.type()))
+                                .findFirst()
+                                .<RuntimeException>map(error -> new UserNotFoundException(error.message()))
+                                .orElseGet(() -> new GithubApiException("GitHub GraphQL errors: " + errors)));
+                    } else if (response.data() == null) {
+                        sink.error(new GithubApiException("GitHub GraphQL response without data"));
+                    } else {
+                        sink.next(response.data());
+                    }
+                });
+    }
+
+    private static Map<String, Object> variables(Object... keysAndValues) {
+        Map<String, Object> variables = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            if (keysAndValues[i + 1] != null) {
+                variables.put((String) keysAndValues[i], keysAndValues[i + 1]);
+            }
+        }
+        return variables;
+    }
+}
@@ -0,0 +1,76 @@
+package com.opt.githubSearchRepo.service;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class GithubPaginator {
+    public static final int PER_PAGE = 100;
+    private static final Pattern LAST_PAGE = Pattern.compile("<[^>]*[?&]page=(\\d+)[^>]*>;\\s*rel=\"last\"");
+    private final WebClient webClient;
+    private final int concurrency;
+
+    public GithubPaginator(WebClient webClient, int concurrency) {
+        this.webClient = webClient;
+        this.concurrency = concurrency;
+    }
+
+    public <T> Flux<Page<T>> fetchAll(String path, Object[] uriVariables, Class<T> type, CacheEntry<?> stale) {
+        return fetchPage(path, uriVariables, 1, type, stale)
+                .flatMapMany(first -> {
+                    if (first.notModified() || first.lastPage() <= 1) {
+                        return Flux.just(first);
+                    }
+                    return Flux.concat(Mono.just(first), Flux.range(2, first.lastPage() - 1)
+                            .flatMapSequential(page -> fetchPage(path, uriVariables, page, type, null),
+                                    concurrency));
+                });
+    }
+
+    static int lastPage(HttpHeaders headers, int currentPage) {
+        String link = headers.getFirst(HttpHeaders.LINK);
+        if (link == null) {
+            return currentPage;
+        }
+        Matcher matcher = LAST_PAGE.matcher(link);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : currentPage;
+    }
+
+    private <T> Mono<Page<T>> fetchPage(String path, Object[] uriVariables, int page, Class<T> type,
+                                        CacheEntry<?> stale) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path(path)
+                        .queryParam("per_page", PER_PAGE)
+                        .queryParam("page", page)
+                        .build(uriVariables))
+                .attribute(GithubClientMetrics.ENDPOINT_ATTRIBUTE, path)
+                .headers(headers -> applyValidators(headers, stale))
+                .retrieve()
+                .toEntityList(type)
+                .map(response -> new Page<>(page, lastPage(response.getHeaders(), page),
+                        response.hasBody() ? response.getBody() : List.of(),
+                        response.getHeaders(), isNotModified(response, stale)));
+    }
+
+    private static void applyValidators(HttpHeaders headers, CacheEntry<?> stale) {
+        if (stale == null) {
+            return;
+        }
+        if (stale.etag() != null) {
+            headers.setIfNoneMatch(stale.etag());
+        }
+        if (stale.lastModified() != null) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, stale.lastModified());
+        }
+    }
+
+    private static boolean isNotModified(ResponseEntity<?> response, CacheEntry<?> stale) {
+        return stale != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED);
+    }
+}
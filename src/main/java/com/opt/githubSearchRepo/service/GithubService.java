@@ -8,4 +8,8 @@ public interface GithubService {
     Flux<BranchInfo> getBranches(String username, String repoName);
 
     Flux<RepositoryInfo> getNonForkRepositories(String username);
+
+    default Flux<RepositoryInfo> getNonForkRepositories(String username, RepositoryQuery query) {
+        return query.apply(getNonForkRepositories(username));
+    }
 }
@@ -4,98 +4,244 @@ import com.opt.githubSearchRepo.dto.BranchInfo;
 import com.opt.githubSearchRepo.dto.GitHubBranch;
 import com.opt.githubSearchRepo.dto.GitHubRepository;
 import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import com.opt.githubSearchRepo.exception.UserNotFoundException;
+import com.opt.githubSearchRepo.repository.Snapshot;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
-import reactor.core.scheduler.Scheduler;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.publisher.Mono;
 
 @Service
 @Slf4j
+@ConditionalOnProperty(name = "github.api.mode", havingValue = "rest", matchIfMissing = true)
 public class GithubServiceImpl implements GithubService {
 
     private static final String GITHUB_SERVICE = "githubService";
-    private final WebClient webClient;
+    private static final String SKIPPED = "skipped";
+    private static final String REFETCHED = "refetched";
+    private static final Duration CALL_TIMEOUT = Duration.ofSeconds(5);
+    private final GithubPaginator paginator;
     private final CacheService cacheService;
-    private final Scheduler parallelScheduler = Schedulers.newParallel("custom-parallel-scheduler", 10);
+    private final CachingFetcher cachingFetcher;
+    private final SnapshotStore snapshotStore;
+    private final AdaptiveConcurrencyLimiter fanOutLimiter;
+    private final MeterRegistry meterRegistry;
+    private final Duration pageTimeout;
 
-    public GithubServiceImpl(WebClient.Builder webClientBuilder, CacheService cacheService) {
-        this.webClient = webClientBuilder.baseUrl("https://api.github.com").build();
+    public GithubServiceImpl(WebClient.Builder webClientBuilder, CacheService cacheService,
+                             CachingFetcher cachingFetcher, SnapshotStore snapshotStore, GithubTokenPool tokenPool,
+                             GithubClientMetrics clientMetrics, AdaptiveConcurrencyLimiter fanOutLimiter,
+                             MeterRegistry meterRegistry,
+                             @Value("${github.api.base-url:https://api.github.com}") String baseUrl,
+                             @Value("${github.pagination.concurrency:4}") int pageConcurrency) {
+        this.paginator = new GithubPaginator(webClientBuilder.baseUrl(baseUrl)
+                .filter(fanOutLimiter)
+                .filter(tokenPool)
+                .filter(clientMetrics)
+                .build(), pageConcurrency);
         this.cacheService = cacheService;
+        this.cachingFetcher = cachingFetcher;
+        this.snapshotStore = snapshotStore;
+        this.fanOutLimiter = fanOutLimiter;
+        this.meterRegistry = meterRegistry;
+        // A call may first wait up to max-wait for rate limit budget, so the timeout runs on top of that and a call
+        // the token pool sheds fails with its 429 rather than a timeout
+        this.pageTimeout = tokenPool.maxWait().plus(CALL_TIMEOUT);
     }
 
     @Override
     @CircuitBreaker(name = GITHUB_SERVICE, fallbackMethod = "fallbackGetBranches")
     @Retry(name = GITHUB_SERVICE)
-    @RateLimiter(name = GITHUB_SERVICE)
-    @Cacheable(value = "branches", key = "#username + '-' + #repoName")
     public Flux<BranchInfo> getBranches(String username, String repoName) {
         log.info("Fetching branches for repository: {}/{}", username, repoName);
-        String cacheKey = username + "-" + repoName;
-
-        return cacheService.getFromCacheAsFlux(cacheKey, BranchInfo.class)
-                .switchIfEmpty(
-                        webClient.get()
-                                .uri(uriBuilder ->
-                                        uriBuilder.path("/repos/{username}/{repoName}/branches")
-                                                .build(username, repoName))
-                                .retrieve()
-                                .bodyToFlux(GitHubBranch.class)
-                                .parallel(10)
-                                .runOn(parallelScheduler)
-                                .map(branch -> new BranchInfo(branch.name(),
-                                        branch.commit().sha()))
-                                .sequential()
-                                .timeout(Duration.ofSeconds(5))
-                                .collectList()
-                                .doOnNext(branches ->
-                                        cacheService.putInCacheAsync(cacheKey, branches))
-                                .flatMapMany(Flux::fromIterable)
-                                .onErrorResume(WebClientResponseException.class, ex -> {
-                                    log.error("WebClient error fetching branches: {}", ex.getMessage());
-                                    return Flux.empty();
-                                })
-                )
+        String cacheKey = CacheFamily.branchesKey(username, repoName);
+
+        return cachingFetcher.fetch(cacheKey, BranchInfo.class,
+                        () -> snapshotStore.findBranches(username, repoName),
+                        stale -> fetchBranches(username, repoName, cacheKey, stale))
                 .doOnComplete(() ->
                         log.info("Successfully fetched branches for repository: {}/{}", username, repoName));
     }
 
     @Override
-    @Cacheable(value = "repositories", key = "#username")
     public Flux<RepositoryInfo> getNonForkRepositories(String username) {
         log.info("Fetching non-fork repositories for user: {}", username);
 
-        String cacheKey = "repos-" + username;
-
-        return cacheService.getFromCacheAsFlux(cacheKey, RepositoryInfo.class)
-                .switchIfEmpty(
-                        webClient.get()
-                                .uri("/users/{username}/repos", username)
-                                .retrieve()
-                                .bodyToFlux(GitHubRepository.class)
-                                .filter(repo -> !repo.fork())
-                                .flatMap(repo -> getBranches(username, repo.name())
-                                        .collectList()
-                                        .map(branches ->
-                                                new RepositoryInfo(repo.name(),
-                                                        repo.owner().login(), branches))
-                                        .subscribeOn(parallelScheduler))
-                                .timeout(Duration.ofSeconds(5))
-                                .collectList()
-                                .doOnNext(repos -> cacheService.putInCacheAsFlux(cacheKey, repos))
-                                .flatMapMany(Flux::fromIterable)
-                                .onErrorResume(WebClientResponseException.class, ex -> {
-                                    log.error("WebClient error fetching repositories: {}", ex.getMessage());
-                                    return Flux.empty();
-                                })
-                )
+        String cacheKey = CacheFamily.repositoriesKey(username);
+
+        return cachingFetcher.fetch(cacheKey, RepositoryInfo.class,
+                        () -> snapshotStore.findRepositories(username),
+                        stale -> fetchNonForkRepositories(username, cacheKey, stale))
                 .doOnComplete(() -> log.info("Successfully fetched repositories for user: {}", username));
     }
+
+    // A fresh cached list already carries every branch, so the query is applied to it. Otherwise branches are only
+    // fetched when selected, and then only for the repositories on the requested page.
+    @Override
+    public Flux<RepositoryInfo> getNonForkRepositories(String username, RepositoryQuery query) {
+        if (query.selects(RepositoryQuery.BRANCHES) && !query.isPaged()) {
+            return query.apply(getNonForkRepositories(username));
+        }
+        return cacheService.getEntry(CacheFamily.repositoriesKey(username), RepositoryInfo.class)
+                .filter(CacheEntry::isFresh)
+                .map(entry -> query.apply(Flux.fromIterable(entry.data())))
+                .switchIfEmpty(Mono.fromSupplier(() -> query.selects(RepositoryQuery.BRANCHES)
+                        ? withBranches(username, query.page(listNonForkRepositories(username))).map(query::project)
+                        : query.apply(listNonForkRepositories(username))))
+                .flatMapMany(Function.identity());
+    }
+
+    private Flux<RepositoryInfo> withBranches(String username, Flux<RepositoryInfo> repositories) {
+        return repositories.flatMapSequential(repo -> getBranches(username, repo.name()).collectList()
+                .map(branches -> new RepositoryInfo(repo.name(), repo.ownerLogin(), branches, repo.pushedAt())));
+    }
+
+    // The repository list alone, cached apart from the full list since it lacks the branches. A stored full list
+    // stands in for it: it comes from the same GitHub call, so its validators hold for this list too.
+    private Flux<RepositoryInfo> listNonForkRepositories(String username) {
+        log.info("Listing non-fork repositories without branches for user: {}", username);
+        String cacheKey = CacheFamily.repositoryListKey(username);
+        return cachingFetcher.fetch(cacheKey, RepositoryInfo.class,
+                () -> snapshotStore.findRepositories(username).map(GithubServiceImpl::withoutBranches),
+                stale -> fetchRepositoryList(username, cacheKey, stale));
+    }
+
+    private Flux<RepositoryInfo> fetchRepositoryList(String username, String cacheKey,
+                                                     CacheEntry<RepositoryInfo> stale) {
+        return onRepositoriesError(username, repositoryPages(username, stale)
+                .switchOnFirst((signal, pages) -> {
+                    Page<GitHubRepository> first = signal.get();
+                    if (first != null && first.notModified()) {
+                        return cacheService.touch(cacheKey, stale)
+                                .flatMapIterable(CacheEntry::data);
+                    }
+                    Flux<RepositoryInfo> listed = pages.flatMapIterable(Page::items)
+                            .filter(repo -> !repo.fork())
+                            .map(repo -> RepositoryInfo.from(repo, null));
+                    // Only the full list is stored in Postgres
+                    return first == null
+                            ? cacheService.cacheOnComplete(cacheKey, listed, null, null)
+                            : cacheService.cacheOnComplete(cacheKey, listed, first.etag(), first.lastModified());
+                }));
+    }
+
+    private static Snapshot<RepositoryInfo> withoutBranches(Snapshot<RepositoryInfo> snapshot) {
+        return new Snapshot<>(snapshot.data().stream()
+                .map(repo -> new RepositoryInfo(repo.name(), repo.ownerLogin(), null, repo.pushedAt()))
+                .toList(), snapshot.etag(), snapshot.lastModified(), snapshot.fetchedAt());
+    }
+
+    // Only the GitHub call waits for the shared fan-out limit, so cache and snapshot hits never queue behind it,
+    // and its timeout starts once the call is let through rather than while it waits
+    private Flux<BranchInfo> fetchBranches(String username, String repoName, String cacheKey,
+                                           CacheEntry<BranchInfo> stale) {
+        Flux<Page<GitHubBranch>> pages = fanOutLimiter.withPermit(paginator.fetchAll(
+                        "/repos/{username}/{repoName}/branches", new Object[]{username, repoName}, GitHubBranch.class,
+                        stale)
+                .timeout(pageTimeout));
+        return pages
+                .switchOnFirst((signal, branchPages) -> {
+                    Page<GitHubBranch> first = signal.get();
+                    if (first != null && first.notModified()) {
+                        return cacheService.touch(cacheKey, stale)
+                                .flatMapIterable(CacheEntry::data);
+                    }
+                    return cacheOnComplete(cacheKey, first,
+                            branchPages.flatMapIterable(Page::items).map(BranchInfo::from),
+                            snapshot -> snapshotStore.saveBranches(username, repoName, snapshot));
+                })
+                .doOnError(WebClientResponseException.class,
+                        ex -> log.error("WebClient error fetching branches: {}", ex.getMessage()));
+    }
+
+    private Flux<RepositoryInfo> fetchNonForkRepositories(String username, String cacheKey,
+                                                          CacheEntry<RepositoryInfo> stale) {
+        return onRepositoriesError(username, repositoryPages(username, stale)
+                .switchOnFirst((signal, pages) -> {
+                    Page<GitHubRepository> first = signal.get();
+                    if (first != null && first.notModified()) {
+                        return cacheService.touch(cacheKey, stale)
+                                .flatMapIterable(CacheEntry::data);
+                    }
+                    Map<String, RepositoryInfo> previous = stale == null ? null : stale.data().stream()
+                            .collect(Collectors.toMap(RepositoryInfo::name, Function.identity(), (a, b) -> a));
+                    return cacheOnComplete(cacheKey, first, pages.flatMapIterable(Page::items)
+                            .filter(repo -> !repo.fork())
+                            .flatMap(repo -> branchesOf(username, repo, previous)
+                                    .map(branches -> RepositoryInfo.from(repo, branches))),
+                            snapshot -> snapshotStore.saveRepositories(username, snapshot));
+                }));
+    }
+
+    // The timeout covers each page of the list, not the branch fetches that follow it: those wait for the fan-out
+    // limit, and a cold burst of users can queue them well past it, so each fetch has its own once it is let through
+    private Flux<Page<GitHubRepository>> repositoryPages(String username, CacheEntry<RepositoryInfo> stale) {
+        return paginator.fetchAll("/users/{username}/repos", new Object[]{username}, GitHubRepository.class, stale)
+                .timeout(pageTimeout);
+    }
+
+    private static <T> Flux<T> onRepositoriesError(String username, Flux<T> repositories) {
+        return repositories
+                .onErrorMap(WebClientResponseException.NotFound.class,
+                        ex -> new UserNotFoundException("GitHub user not found: " + username))
+                .doOnError(WebClientResponseException.class,
+                        ex -> log.error("WebClient error fetching repositories: {}", ex.getMessage()));
+    }
+
+    // On a refresh, a repository whose push timestamp has not moved keeps its fresh cached branch list: every push,
+    // including creating or deleting a branch, moves pushed_at. Once that entry is gone, say evicted by a webhook,
+    // or stale, the branches are fetched as usual. Repositories that moved go back upstream past their cached branch
+    // list, since that may predate the push.
+    private Mono<List<BranchInfo>> branchesOf(String username, GitHubRepository repo,
+                                              Map<String, RepositoryInfo> previous) {
+        if (previous == null) {
+            return getBranches(username, repo.name()).collectList();
+        }
+        String cacheKey = CacheFamily.branchesKey(username, repo.name());
+        RepositoryInfo seen = previous.get(repo.name());
+        if (seen != null && seen.pushedAt() != null && seen.pushedAt().equals(repo.lastPushedAt())) {
+            return cacheService.getEntry(cacheKey, BranchInfo.class)
+                    .filter(CacheEntry::isFresh)
+                    .map(entry -> {
+                        syncCounter(SKIPPED).increment();
+                        return entry.data();
+                    })
+                    .switchIfEmpty(Mono.defer(() -> {
+                        syncCounter(REFETCHED).increment();
+                        return getBranches(username, repo.name()).collectList();
+                    }));
+        }
+        syncCounter(REFETCHED).increment();
+        return cachingFetcher.revalidate(cacheKey, BranchInfo.class,
+                        stale -> fetchBranches(username, repo.name(), cacheKey, stale))
+                .collectList();
+    }
+
+    private Counter syncCounter(String result) {
+        return Counter.builder("github.sync.repositories")
+                .tag("result", result)
+                .description("Repositories whose branches were reused or refetched when refreshing a user")
+                .register(meterRegistry);
+    }
+
+    private <T> Flux<T> cacheOnComplete(String cacheKey, Page<?> first, Flux<T> items,
+                                        Consumer<Snapshot<T>> writeBehind) {
+        return first == null
+                ? cacheService.cacheOnComplete(cacheKey, items, null, null, writeBehind)
+                : cacheService.cacheOnComplete(cacheKey, items, first.etag(), first.lastModified(), writeBehind);
+    }
 }
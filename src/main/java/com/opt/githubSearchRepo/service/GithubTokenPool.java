@@ -0,0 +1,289 @@
+package com.opt.githubSearchRepo.service;
+
+import com.opt.githubSearchRepo.exception.GithubRateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+// Routes every GitHub call to the token with the most rate limit budget left, using the X-RateLimit-* headers of
+// earlier responses. When every token is spent the call waits for the earliest reset, or is rejected up front if
+// that is further away than max-wait, instead of being sent only to come back as a 403.
+@Component
+@Slf4j
+public class GithubTokenPool implements ExchangeFilterFunction {
+    static final String RATE_LIMIT_REMAINING = "X-RateLimit-Remaining";
+    static final String RATE_LIMIT_LIMIT = "X-RateLimit-Limit";
+    static final String RATE_LIMIT_RESET = "X-RateLimit-Reset";
+    private static final String ANONYMOUS = "anonymous";
+    private static final String CORE_RESOURCE = "core";
+    private static final String GRAPHQL_RESOURCE = "graphql";
+    private static final String GRAPHQL_PATH = "/graphql";
+    private static final long UNKNOWN = -1;
+    private static final Duration MIN_WAIT = Duration.ofMillis(50);
+
+    private final MeterRegistry meterRegistry;
+    private final List<Token> tokens;
+    private final int reserve;
+    private final Duration maxWait;
+
+    @Autowired
+    public GithubTokenPool(MeterRegistry meterRegistry,
+                           @Value("${github.tokens:${github.token:}}") String tokens,
+                           @Value("${github.token-pool.reserve:5}") int reserve,
+                           @Value("${github.token-pool.max-wait:5s}") Duration maxWait) {
+        this(meterRegistry, Arrays.stream(tokens.split(","))
+                .map(String::trim)
+                .filter(token -> !token.isEmpty())
+                .toList(), reserve, maxWait);
+    }
+
+    public GithubTokenPool(MeterRegistry meterRegistry, List<String> tokens, int reserve, Duration maxWait) {
+        this.meterRegistry = meterRegistry;
+        this.reserve = reserve;
+        this.maxWait = maxWait;
+        this.tokens = tokens.isEmpty()
+                ? List.of(new Token(ANONYMOUS, null))
+                : IntStream.range(0, tokens.size())
+                        .mapToObj(i -> new Token("token-" + (i + 1), tokens.get(i)))
+                        .toList();
+        if (tokens.isEmpty()) {
+            log.warn("No GitHub tokens configured; calls are unauthenticated and limited to 60 requests per hour");
+        } else {
+            log.info("Spreading GitHub calls across {} tokens", tokens.size());
+        }
+    }
+
+    public Duration maxWait() {
+        return maxWait;
+    }
+
+    public boolean isAuthenticated() {
+        return tokens.get(0).secret != null;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String resource = request.url().getPath().endsWith(GRAPHQL_PATH) ? GRAPHQL_RESOURCE : CORE_RESOURCE;
+        return Mono.defer(() -> acquire(resource, Instant.now().plus(maxWait), false))
+                .flatMap(lease -> next.exchange(lease.authorize(request))
+                        .doOnNext(lease::update)
+                        .doFinally(signal -> lease.release()));
+    }
+
+    private Mono<Lease> acquire(String resource, Instant deadline, boolean queued) {
+        Instant now = Instant.now();
+        Lease lease = tryAcquire(resource, now.toEpochMilli());
+        if (lease != null) {
+            return Mono.just(lease);
+        }
+        Instant availableAt = Instant.ofEpochMilli(nextAvailableAt(resource));
+        if (availableAt.isAfter(deadline)) {
+            Duration retryAfter = Duration.between(now, availableAt);
+            counter("github.tokens.shed", resource).increment();
+            log.warn("Shedding GitHub {} call: every token is out of budget for another {}s", resource,
+                    retryAfter.toSeconds());
+            return Mono.error(new GithubRateLimitExceededException(
+                    "GitHub API rate limit budget exhausted", retryAfter));
+        }
+        if (!queued) {
+            counter("github.tokens.queued", resource).increment();
+        }
+        Duration wait = Duration.between(now, availableAt);
+        return Mono.delay(wait.compareTo(MIN_WAIT) < 0 ? MIN_WAIT : wait)
+                .then(Mono.defer(() -> acquire(resource, deadline, true)));
+    }
+
+    private synchronized Lease tryAcquire(String resource, long now) {
+        Budget best = null;
+        long bestAvailable = 0;
+        for (Token token : tokens) {
+            Budget budget = token.budget(resource);
+            long available = budget.available(now);
+            if (available > bestAvailable) {
+                best = budget;
+                bestAvailable = available;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        best.inFlight++;
+        best.requests.increment();
+        return new Lease(best);
+    }
+
+    private synchronized long nextAvailableAt(String resource) {
+        return tokens.stream()
+                .mapToLong(token -> token.budget(resource).availableAt())
+                .min()
+                .orElse(0);
+    }
+
+    private Counter counter(String name, String resource) {
+        return Counter.builder(name)
+                .tag("resource", resource)
+                .register(meterRegistry);
+    }
+
+    private static Long parse(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private final class Token {
+        private final String id;
+        private final String secret;
+        private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+
+        private Token(String id, String secret) {
+            this.id = id;
+            this.secret = secret;
+        }
+
+        private Budget budget(String resource) {
+            return budgets.computeIfAbsent(resource, r -> new Budget(this, r));
+        }
+    }
+
+    private final class Budget {
+        private final Token token;
+        private final Counter requests;
+        private volatile long remaining = UNKNOWN;
+        private volatile long limit = UNKNOWN;
+        private volatile long resetAtSeconds;
+        private volatile long blockedUntilMillis;
+        private volatile int inFlight;
+
+        private Budget(Token token, String resource) {
+            this.token = token;
+            this.requests = Counter.builder("github.token.requests")
+                    .tags("token", token.id, "resource", resource)
+                    .description("GitHub calls routed to this token")
+                    .register(meterRegistry);
+            Gauge.builder("github.ratelimit.remaining", this, budget -> budget.remaining)
+                    .tags("token", token.id, "resource", resource)
+                    .description("Requests left in the token's current GitHub rate limit window")
+                    .register(meterRegistry);
+            Gauge.builder("github.ratelimit.limit", this, budget -> budget.limit)
+                    .tags("token", token.id, "resource", resource)
+                    .description("Size of the token's GitHub rate limit window")
+                    .register(meterRegistry);
+            Gauge.builder("github.ratelimit.reset", this, budget -> budget.resetAtSeconds)
+                    .tags("token", token.id, "resource", resource)
+                    .description("Epoch second at which the token's GitHub rate limit window resets")
+                    .register(meterRegistry);
+            Gauge.builder("github.token.utilization", this, Budget::utilization)
+                    .tags("token", token.id, "resource", resource)
+                    .description("Share of the token's rate limit window already used")
+                    .register(meterRegistry);
+            Gauge.builder("github.token.in-flight", this, budget -> budget.inFlight)
+                    .tags("token", token.id, "resource", resource)
+                    .description("GitHub calls currently running on this token")
+                    .register(meterRegistry);
+        }
+
+        private long available(long now) {
+            if (now < blockedUntilMillis) {
+                return 0;
+            }
+            if (remaining == UNKNOWN) {
+                // Not used yet: prefer it so its real budget is learned, spreading calls by in-flight count
+                return Long.MAX_VALUE - inFlight;
+            }
+            if (resetAtSeconds * 1000 <= now) {
+                remaining = limit;
+            }
+            return remaining - inFlight - reserve;
+        }
+
+        private long availableAt() {
+            return Math.max(blockedUntilMillis, resetAtSeconds * 1000);
+        }
+
+        private double utilization() {
+            long currentLimit = limit;
+            return currentLimit <= 0 ? 0 : (double) (currentLimit - remaining) / currentLimit;
+        }
+
+        private void update(HttpHeaders headers, HttpStatus status, long now) {
+            Long remainingHeader = parse(headers.getFirst(RATE_LIMIT_REMAINING));
+            if (remainingHeader != null) {
+                Long resetHeader = parse(headers.getFirst(RATE_LIMIT_RESET));
+                long reset = resetHeader == null ? resetAtSeconds : resetHeader;
+                // Responses of one window can arrive out of order; the lowest count is the most recent
+                remaining = remaining == UNKNOWN || reset > resetAtSeconds
+                        ? remainingHeader
+                        : Math.min(remaining, remainingHeader);
+                resetAtSeconds = reset;
+                Long limitHeader = parse(headers.getFirst(RATE_LIMIT_LIMIT));
+                if (limitHeader != null) {
+                    limit = limitHeader;
+                }
+            }
+            Long retryAfter = parse(headers.getFirst(HttpHeaders.RETRY_AFTER));
+            if (retryAfter != null && (status == HttpStatus.FORBIDDEN || status == HttpStatus.TOO_MANY_REQUESTS)) {
+                log.warn("GitHub asked {} to back off for {}s", token.id, retryAfter);
+                blockedUntilMillis = now + retryAfter * 1000;
+            }
+        }
+    }
+
+    private final class Lease {
+        private final Budget budget;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(Budget budget) {
+            this.budget = budget;
+        }
+
+        private ClientRequest authorize(ClientRequest request) {
+            String secret = budget.token.secret;
+            if (secret == null) {
+                return request;
+            }
+            return ClientRequest.from(request)
+                    .headers(headers -> headers.setBearerAuth(secret))
+                    .build();
+        }
+
+        private void update(ClientResponse response) {
+            HttpStatus status = HttpStatus.resolve(response.statusCode().value());
+            synchronized (GithubTokenPool.this) {
+                budget.update(response.headers().asHttpHeaders(), status, System.currentTimeMillis());
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                synchronized (GithubTokenPool.this) {
+                    budget.inFlight--;
+                }
+            }
+        }
+    }
+}
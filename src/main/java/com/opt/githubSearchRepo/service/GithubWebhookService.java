@@ -0,0 +1,300 @@
+package com.opt.githubSearchRepo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.GitHubRepository;
+import com.opt.githubSearchRepo.dto.GitHubWebhookEvent;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import com.opt.githubSearchRepo.exception.InvalidRequestException;
+import com.opt.githubSearchRepo.exception.InvalidWebhookSignatureException;
+import com.opt.githubSearchRepo.repository.Snapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+// Applies GitHub webhook deliveries to the cached lists they affect. Branch changes are patched into the branch
+// list and the owner's repository list in place; changes that cannot be patched without asking GitHub, such as a
+// new repository, evict the affected entries instead. Either way the Postgres snapshot follows, so a Redis miss
+// never brings back what the delivery replaced. Entries are keyed by the owner login as GitHub spells it.
+@Service
+@Slf4j
+public class GithubWebhookService {
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final String SIGNATURE_PREFIX = "sha256=";
+    private static final String BRANCH_REF_PREFIX = "refs/heads/";
+    private static final String BRANCH = "branch";
+    private static final String PUSH = "push";
+    private static final String CREATE = "create";
+    private static final String DELETE = "delete";
+    private static final String REPOSITORY = "repository";
+    private static final Set<String> EVENTS = Set.of(PUSH, CREATE, DELETE, REPOSITORY);
+    private static final Set<String> REMOVING_ACTIONS = Set.of("deleted", "privatized");
+    private static final Set<String> ADDING_ACTIONS = Set.of("created", "publicized");
+
+    private final CacheService cacheService;
+    private final SnapshotStore snapshotStore;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final byte[] secret;
+
+    public GithubWebhookService(CacheService cacheService, SnapshotStore snapshotStore, ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${github.webhook.secret:}") String secret) {
+        this.cacheService = cacheService;
+        this.snapshotStore = snapshotStore;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Returns whether the delivery changed anything; events and refs that never affect cached lists are ignored
+    public Mono<Boolean> handle(String event, String signature, byte[] payload) {
+        boolean handled = event != null && EVENTS.contains(event);
+        String eventTag = handled ? event : "other";
+        if (!isSignedBySecret(signature, payload)) {
+            deliveries(eventTag, "rejected").increment();
+            return Mono.error(new InvalidWebhookSignatureException("Signature of " + event + " delivery does not "
+                    + "match the configured secret"));
+        }
+        if (!handled) {
+            deliveries(eventTag, "ignored").increment();
+            return Mono.just(false);
+        }
+        return Mono.fromCallable(() -> parse(payload))
+                .flatMap(parsed -> apply(event, parsed))
+                .doOnNext(applied -> deliveries(eventTag, applied ? "applied" : "ignored").increment());
+    }
+
+    private boolean isSignedBySecret(String signature, byte[] payload) {
+        if (secret.length == 0) {
+            log.warn("github.webhook.secret is not set; rejecting webhook delivery");
+            return false;
+        }
+        if (signature == null || !signature.startsWith(SIGNATURE_PREFIX)) {
+            return false;
+        }
+        try {
+            byte[] expected = HexFormat.of().parseHex(signature.substring(SIGNATURE_PREFIX.length()));
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(secret, HMAC_SHA256));
+            return MessageDigest.isEqual(mac.doFinal(payload), expected);
+        } catch (IllegalArgumentException e) {
+            return false;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private GitHubWebhookEvent parse(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, GitHubWebhookEvent.class);
+        } catch (IOException e) {
+            throw new InvalidRequestException("Malformed webhook payload: " + e.getMessage(), e);
+        }
+    }
+
+    private Mono<Boolean> apply(String event, GitHubWebhookEvent payload) {
+        GitHubRepository repository = payload.repository();
+        if (repository == null || repository.owner() == null) {
+            return Mono.just(false);
+        }
+        return switch (event) {
+            case PUSH -> onPush(payload, repository);
+            case CREATE -> onCreate(payload, repository);
+            case DELETE -> onDelete(payload, repository);
+            default -> onRepository(payload, repository);
+        };
+    }
+
+    private Mono<Boolean> onPush(GitHubWebhookEvent payload, GitHubRepository repository) {
+        if (payload.ref() == null || !payload.ref().startsWith(BRANCH_REF_PREFIX)) {
+            return Mono.just(false);
+        }
+        String branch = payload.ref().substring(BRANCH_REF_PREFIX.length());
+        return patchBranches(repository, payload.deleted()
+                ? withoutBranch(branch)
+                : withBranch(branch, payload.after()));
+    }
+
+    // A create delivery names the branch but not its commit, which comes with the push GitHub sends alongside it.
+    // Entries that push already reached are kept; anything else is evicted and fetched again.
+    private Mono<Boolean> onCreate(GitHubWebhookEvent payload, GitHubRepository repository) {
+        if (!BRANCH.equals(payload.refType())) {
+            return Mono.just(false);
+        }
+        return patchBranches(repository, branches -> branches.stream()
+                .anyMatch(branch -> branch.name().equals(payload.ref())) ? branches : null);
+    }
+
+    private Mono<Boolean> onDelete(GitHubWebhookEvent payload, GitHubRepository repository) {
+        if (!BRANCH.equals(payload.refType())) {
+            return Mono.just(false);
+        }
+        return patchBranches(repository, withoutBranch(payload.ref()));
+    }
+
+    private Mono<Boolean> onRepository(GitHubWebhookEvent payload, GitHubRepository repository) {
+        String owner = repository.owner().login();
+        String action = Objects.toString(payload.action(), "");
+        if (REMOVING_ACTIONS.contains(action)) {
+            return Mono.when(evictBranches(owner, repository.name()), repository.fork()
+                            ? Mono.empty()
+                            : patchRepositories(owner, repositories -> repositories.stream()
+                                    .filter(listed -> !listed.name().equals(repository.name()))
+                                    .toList()))
+                    .thenReturn(true);
+        }
+        if (ADDING_ACTIONS.contains(action)) {
+            return repository.fork() ? Mono.just(false) : evictRepositories(owner).thenReturn(true);
+        }
+        if ("renamed".equals(action) && payload.previousName() != null) {
+            return Mono.when(evictBranches(owner, payload.previousName()),
+                            repository.fork() ? Mono.empty() : evictRepositories(owner))
+                    .thenReturn(true);
+        }
+        if ("transferred".equals(action) && payload.previousOwner() != null) {
+            String previousOwner = payload.previousOwner();
+            return Mono.when(evictBranches(previousOwner, repository.name()),
+                            repository.fork() ? Mono.empty() : evictRepositories(previousOwner),
+                            repository.fork() ? Mono.empty() : evictRepositories(owner))
+                    .thenReturn(true);
+        }
+        return Mono.just(false);
+    }
+
+    // Forks never appear in the owner's repository list, only in their own branch list
+    private Mono<Boolean> patchBranches(GitHubRepository repository, UnaryOperator<List<BranchInfo>> change) {
+        String owner = repository.owner().login();
+        String name = repository.name();
+        Mono<Void> branches = patch(CacheFamily.branchesKey(owner, name), BranchInfo.class, change,
+                snapshot -> snapshotStore.saveBranches(owner, name, snapshot),
+                () -> snapshotStore.expireBranches(owner, name));
+        if (repository.fork()) {
+            return branches.thenReturn(true);
+        }
+        return Mono.when(branches, patchRepositories(owner, inRepository(repository, change)))
+                .thenReturn(true);
+    }
+
+    // The list without branches is not patched, only dropped: pushes move its pushed_at and it has no snapshot
+    private Mono<Void> patchRepositories(String owner, UnaryOperator<List<RepositoryInfo>> change) {
+        return Mono.when(patch(CacheFamily.repositoriesKey(owner), RepositoryInfo.class, change,
+                        snapshot -> snapshotStore.saveRepositories(owner, snapshot),
+                        () -> snapshotStore.expireRepositories(owner)),
+                evictRepositoryList(owner));
+    }
+
+    private Mono<Void> evictBranches(String owner, String name) {
+        return evict(CacheFamily.branchesKey(owner, name), () -> snapshotStore.expireBranches(owner, name));
+    }
+
+    private Mono<Void> evictRepositories(String owner) {
+        return Mono.when(evict(CacheFamily.repositoriesKey(owner), () -> snapshotStore.expireRepositories(owner)),
+                evictRepositoryList(owner));
+    }
+
+    private Mono<Void> evictRepositoryList(String owner) {
+        return evict(CacheFamily.repositoryListKey(owner), () -> {
+        });
+    }
+
+    private <T> Mono<Void> patch(String key, Class<T> type, UnaryOperator<List<T>> change,
+                                 Consumer<Snapshot<T>> save, Runnable expire) {
+        return cacheService.update(key, type, change)
+                .doOnNext(snapshot -> {
+                    save.accept(snapshot);
+                    entries(key, "updated").increment();
+                })
+                .hasElement()
+                .flatMap(updated -> updated ? Mono.empty() : evict(key, expire));
+    }
+
+    private Mono<Void> evict(String key, Runnable expire) {
+        return Mono.defer(() -> {
+            expire.run();
+            entries(key, "evicted").increment();
+            return cacheService.evict(key).then();
+        });
+    }
+
+    // The repository's own push time comes along, so the next refresh of the list keeps the patched branches
+    private static UnaryOperator<List<RepositoryInfo>> inRepository(GitHubRepository repository,
+                                                                    UnaryOperator<List<BranchInfo>> change) {
+        Instant pushedAt = repository.lastPushedAt();
+        return repositories -> {
+            List<RepositoryInfo> patched = new ArrayList<>(repositories.size());
+            boolean found = false;
+            for (RepositoryInfo listed : repositories) {
+                if (!listed.name().equals(repository.name())) {
+                    patched.add(listed);
+                    continue;
+                }
+                List<BranchInfo> branches = change.apply(listed.branches());
+                if (branches == null) {
+                    return null;
+                }
+                patched.add(new RepositoryInfo(listed.name(), listed.ownerLogin(), branches,
+                        pushedAt != null ? pushedAt : listed.pushedAt()));
+                found = true;
+            }
+            return found ? patched : null;
+        };
+    }
+
+    // GitHub lists branches by name, so a new branch goes where the next fetch would put it
+    private static UnaryOperator<List<BranchInfo>> withBranch(String name, String commitSha) {
+        return branches -> {
+            List<BranchInfo> patched = new ArrayList<>(branches);
+            BranchInfo branch = new BranchInfo(name, commitSha);
+            for (int i = 0; i < patched.size(); i++) {
+                if (patched.get(i).name().equals(name)) {
+                    patched.set(i, branch);
+                    return patched;
+                }
+            }
+            int position = 0;
+            while (position < patched.size() && patched.get(position).name().compareTo(name) < 0) {
+                position++;
+            }
+            patched.add(position, branch);
+            return patched;
+        };
+    }
+
+    private static UnaryOperator<List<BranchInfo>> withoutBranch(String name) {
+        return branches -> branches.stream()
+                .filter(branch -> !branch.name().equals(name))
+                .toList();
+    }
+
+    private Counter deliveries(String event, String result) {
+        return Counter.builder("github.webhook.deliveries")
+                .tags("event", event, "result", result)
+                .description("GitHub webhook deliveries by event and whether they were applied, ignored or rejected")
+                .register(meterRegistry);
+    }
+
+    private Counter entries(String key, String result) {
+        return Counter.builder("github.webhook.entries")
+                .tags("cache", CacheFamily.of(key).cacheName(), "result", result)
+                .description("Cache entries patched in place or evicted by webhook deliveries")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,65 @@
+package com.opt.githubSearchRepo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+@Component
+@Slf4j
+public class InFlightRequestRegistry {
+    private final Map<String, Flux<?>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalescedRequests;
+    private final Duration abandonGrace;
+
+    public InFlightRequestRegistry(MeterRegistry meterRegistry,
+                                   @Value("${github.cache.in-flight.abandon-grace:30s}") Duration abandonGrace) {
+        this.abandonGrace = abandonGrace;
+        this.coalescedRequests = Counter.builder("github.requests.coalesced")
+                .description("Requests that joined an in-flight upstream fetch instead of starting their own")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> join(String key, Supplier<Flux<T>> upstream) {
+        return Flux.defer(() -> {
+            AtomicBoolean started = new AtomicBoolean();
+            Flux<T> shared = (Flux<T>) inFlight.computeIfAbsent(key, k -> {
+                started.set(true);
+                return share(k, upstream);
+            });
+            if (!started.get()) {
+                coalescedRequests.increment();
+                log.debug("Joined in-flight request for key: {}", key);
+            }
+            return shared;
+        });
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    // A fetch every caller has left keeps running for abandon-grace, so a client that disconnects mid-stream does
+    // not throw away the pages already paid for: it still completes and caches its result, and later callers
+    // join it meanwhile
+    private <T> Flux<T> share(String key, Supplier<Flux<T>> upstream) {
+        AtomicReference<Flux<T>> self = new AtomicReference<>();
+        Runnable release = () -> inFlight.remove(key, self.get());
+        Flux<T> shared = Flux.defer(upstream)
+                .doOnTerminate(release)
+                .doOnCancel(release)
+                .replay()
+                .refCount(1, abandonGrace);
+        self.set(shared);
+        return shared;
+    }
+}
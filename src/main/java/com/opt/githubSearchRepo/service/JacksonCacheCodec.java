@@ -0,0 +1,66 @@
+package com.opt.githubSearchRepo.service;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Predicate;
+
+public final class JacksonCacheCodec implements CacheCodec {
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+
+    private final String name;
+    private final ObjectMapper objectMapper;
+    private final Predicate<byte[]> format;
+
+    private JacksonCacheCodec(String name, ObjectMapper objectMapper, Predicate<byte[]> format) {
+        this.name = name;
+        this.objectMapper = objectMapper;
+        this.format = format;
+    }
+
+    public static JacksonCacheCodec json() {
+        return new JacksonCacheCodec("json", new ObjectMapper().registerModule(new JavaTimeModule()),
+                bytes -> bytes.length > 0 && bytes[0] == '[');
+    }
+
+    public static JacksonCacheCodec smile() {
+        return new JacksonCacheCodec("smile", SmileMapper.builder().addModule(new JavaTimeModule()).build(),
+                JacksonCacheCodec::hasSmileHeader);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public boolean canDecode(byte[] bytes) {
+        return format.test(bytes);
+    }
+
+    @Override
+    public byte[] encode(List<?> values) throws IOException {
+        return objectMapper.writeValueAsBytes(values);
+    }
+
+    @Override
+    public <T> List<T> decode(byte[] bytes, Class<T> type) throws IOException {
+        JavaType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, type);
+        return objectMapper.readValue(bytes, listType);
+    }
+
+    private static boolean hasSmileHeader(byte[] bytes) {
+        if (bytes.length < SMILE_HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < SMILE_HEADER.length; i++) {
+            if (bytes[i] != SMILE_HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,39 @@
+package com.opt.githubSearchRepo.service;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import com.opt.githubSearchRepo.repository.Snapshot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@ConditionalOnProperty(name = "github.store.enabled", havingValue = "false")
+public class NoOpSnapshotStore implements SnapshotStore {
+
+    @Override
+    public Mono<Snapshot<RepositoryInfo>> findRepositories(String username) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Snapshot<BranchInfo>> findBranches(String username, String repositoryName) {
+        return Mono.empty();
+    }
+
+    @Override
+    public void saveRepositories(String username, Snapshot<RepositoryInfo> snapshot) {
+    }
+
+    @Override
+    public void saveBranches(String username, String repositoryName, Snapshot<BranchInfo> snapshot) {
+    }
+
+    @Override
+    public void expireRepositories(String username) {
+    }
+
+    @Override
+    public void expireBranches(String username, String repositoryName) {
+    }
+}
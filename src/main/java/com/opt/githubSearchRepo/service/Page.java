@@ -0,0 +1,19 @@
+package com.opt.githubSearchRepo.service;
+
+import java.util.List;
+import org.springframework.http.HttpHeaders;
+
+public record Page<T>(int number, int lastPage, List<T> items, HttpHeaders headers, boolean notModified) {
+
+    public boolean isOnlyPage() {
+        return number == 1 && lastPage == 1;
+    }
+
+    public String etag() {
+        return isOnlyPage() ? headers.getETag() : null;
+    }
+
+    public String lastModified() {
+        return isOnlyPage() ? headers.getFirst(HttpHeaders.LAST_MODIFIED) : null;
+    }
+}
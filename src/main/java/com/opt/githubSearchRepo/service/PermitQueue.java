@@ -0,0 +1,127 @@
+package com.opt.githubSearchRepo.service;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+// First come, first served permits for reactive tasks, at most limit of them held at once. The limit is read each
+// time a permit could be granted, so an owner that raises it calls grantWaiters to let the queue catch up; a lower
+// limit takes effect as held permits are released. A permit is released when its task completes, fails or is
+// cancelled, and a waiter cancelled before its turn gives up its place.
+final class PermitQueue {
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final IntSupplier limit;
+    private final Queue<Waiter> waiters = new ArrayDeque<>();
+    private int held;
+
+    PermitQueue(IntSupplier limit) {
+        this.limit = limit;
+    }
+
+    <T> Mono<T> withPermit(Mono<T> task) {
+        return Mono.usingWhen(acquire(), permit -> task,
+                Permit::release, (permit, error) -> permit.release(), Permit::release);
+    }
+
+    <T> Flux<T> withPermit(Flux<T> task) {
+        return Flux.usingWhen(acquire(), permit -> task,
+                Permit::release, (permit, error) -> permit.release(), Permit::release);
+    }
+
+    synchronized int held() {
+        return held;
+    }
+
+    synchronized int waiting() {
+        return waiters.size();
+    }
+
+    void grantWaiters() {
+        while (true) {
+            Waiter next;
+            synchronized (this) {
+                if (held >= limit.getAsInt()) {
+                    return;
+                }
+                next = waiters.poll();
+                if (next == null) {
+                    return;
+                }
+                held++;
+            }
+            if (!next.grant()) {
+                synchronized (this) {
+                    held--;
+                }
+            }
+        }
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.create(this::enqueue)
+                .doOnDiscard(Permit.class, Permit::releaseNow);
+    }
+
+    private void enqueue(MonoSink<Permit> sink) {
+        Waiter waiter = new Waiter(sink);
+        sink.onCancel(waiter::cancel);
+        synchronized (this) {
+            waiters.add(waiter);
+        }
+        grantWaiters();
+    }
+
+    private void releasePermit() {
+        synchronized (this) {
+            held--;
+        }
+        grantWaiters();
+    }
+
+    private final class Waiter {
+        private final MonoSink<Permit> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+
+        private boolean grant() {
+            if (!state.compareAndSet(WAITING, GRANTED)) {
+                return false;
+            }
+            sink.success(new Permit());
+            return true;
+        }
+
+        private void cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                synchronized (PermitQueue.this) {
+                    waiters.remove(this);
+                }
+            }
+        }
+    }
+
+    private final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Mono<Void> release() {
+            return Mono.fromRunnable(this::releaseNow);
+        }
+
+        private void releaseNow() {
+            if (released.compareAndSet(false, true)) {
+                releasePermit();
+            }
+        }
+    }
+}
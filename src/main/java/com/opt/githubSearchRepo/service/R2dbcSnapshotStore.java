@@ -0,0 +1,237 @@
+package com.opt.githubSearchRepo.service;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import com.opt.githubSearchRepo.repository.Snapshot;
+import com.opt.githubSearchRepo.repository.SnapshotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Keeps the last fetched lists in Postgres so a Redis flush or restart does not send every user back to GitHub.
+// Writes are queued and flushed in batches, one transaction each, off the request path; reads give up after
+// read-timeout so a slow database costs a GitHub call rather than a stuck request.
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "github.store.enabled", havingValue = "true", matchIfMissing = true)
+public class R2dbcSnapshotStore implements SnapshotStore {
+    private static final int WARM_UP_CONCURRENCY = 4;
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final SnapshotRepository repository;
+    private final TransactionalOperator transactionalOperator;
+    private final CacheService cacheService;
+    private final MeterRegistry meterRegistry;
+    private final Duration maxAge;
+    private final Duration readTimeout;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final int warmUpUsers;
+    private final BlockingQueue<PendingWrite> pendingWrites;
+    private final Timer batchTimer;
+    private Disposable flushSubscription;
+
+    public R2dbcSnapshotStore(SnapshotRepository repository, TransactionalOperator transactionalOperator,
+                              CacheService cacheService, MeterRegistry meterRegistry,
+                              @Value("${github.store.max-age:24h}") Duration maxAge,
+                              @Value("${github.store.read-timeout:500ms}") Duration readTimeout,
+                              @Value("${github.store.write-behind.batch-size:50}") int batchSize,
+                              @Value("${github.store.write-behind.interval:1s}") Duration flushInterval,
+                              @Value("${github.store.write-behind.queue-capacity:10000}") int queueCapacity,
+                              @Value("${github.store.warm-up.max-users:500}") int warmUpUsers) {
+        this.repository = repository;
+        this.transactionalOperator = transactionalOperator;
+        this.cacheService = cacheService;
+        this.meterRegistry = meterRegistry;
+        this.maxAge = maxAge;
+        this.readTimeout = readTimeout;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.warmUpUsers = warmUpUsers;
+        this.pendingWrites = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchTimer = Timer.builder("snapshot.write.batches")
+                .description("Time to write one batch of snapshots to Postgres")
+                .register(meterRegistry);
+        Gauge.builder("snapshot.writes.pending", pendingWrites, Collection::size)
+                .description("Snapshots waiting to be written to Postgres")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void startWriteBehind() {
+        flushSubscription = Flux.interval(flushInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> flush())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stopWriteBehind() {
+        if (flushSubscription != null) {
+            flushSubscription.dispose();
+        }
+        try {
+            flush().block(SHUTDOWN_FLUSH_TIMEOUT);
+        } catch (RuntimeException e) {
+            log.warn("Could not flush pending snapshots on shutdown: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Instant fetchedAfter = Instant.now().minus(maxAge);
+        repository.findRecentUsernames(fetchedAfter, warmUpUsers)
+                .flatMap(username -> repository.findRepositories(username, fetchedAfter)
+                        .flatMap(snapshot -> cacheService.putInCache(CacheFamily.repositoriesKey(username),
+                                snapshot)), WARM_UP_CONCURRENCY)
+                .filter(Boolean::booleanValue)
+                .count()
+                .subscribe(warmed -> log.info("Warmed the cache with {} repository lists from Postgres", warmed),
+                        e -> log.warn("Cache warm-up from Postgres failed: {}", e.getMessage()));
+    }
+
+    // Stored under the lower-cased login and repository name, like the cache keys, so a request for Octocat/Hello
+    // and a webhook for octocat/hello read and write the same rows
+    @Override
+    public Mono<Snapshot<RepositoryInfo>> findRepositories(String username) {
+        return read(CacheFamily.REPOSITORIES,
+                repository.findRepositories(CacheFamily.normalize(username), Instant.now().minus(maxAge)));
+    }
+
+    @Override
+    public Mono<Snapshot<BranchInfo>> findBranches(String username, String repositoryName) {
+        return read(CacheFamily.BRANCHES, repository.findBranches(CacheFamily.normalize(username),
+                CacheFamily.normalize(repositoryName), Instant.now().minus(maxAge)));
+    }
+
+    @Override
+    public void saveRepositories(String username, Snapshot<RepositoryInfo> snapshot) {
+        String owner = CacheFamily.normalize(username);
+        enqueue(new PendingWrite(owner, () -> repository.saveRepositories(owner, snapshot)));
+    }
+
+    @Override
+    public void saveBranches(String username, String repositoryName, Snapshot<BranchInfo> snapshot) {
+        String owner = CacheFamily.normalize(username);
+        String name = CacheFamily.normalize(repositoryName);
+        enqueue(new PendingWrite(branchesKey(owner, name), () -> repository.saveBranches(owner, name, snapshot)));
+    }
+
+    // Expiring goes through the same queue under the same key as saving, so it replaces a pending save of the
+    // list rather than racing it
+    @Override
+    public void expireRepositories(String username) {
+        String owner = CacheFamily.normalize(username);
+        enqueue(new PendingWrite(owner, () -> repository.expireRepositories(owner)));
+    }
+
+    @Override
+    public void expireBranches(String username, String repositoryName) {
+        String owner = CacheFamily.normalize(username);
+        String name = CacheFamily.normalize(repositoryName);
+        enqueue(new PendingWrite(branchesKey(owner, name), () -> repository.expireBranches(owner, name)));
+    }
+
+    // GitHub names cannot contain a slash, so this never collides with another user or repository
+    private static String branchesKey(String username, String repositoryName) {
+        return username + "/" + repositoryName;
+    }
+
+    private <T> Mono<Snapshot<T>> read(CacheFamily family, Mono<Snapshot<T>> snapshot) {
+        return snapshot.timeout(readTimeout)
+                .doOnSuccess(found -> reads(family, found == null ? "miss" : "hit").increment())
+                .onErrorResume(e -> {
+                    log.warn("Error reading {} snapshot from Postgres: {}", family.cacheName(), e.getMessage());
+                    reads(family, "error").increment();
+                    return Mono.empty();
+                });
+    }
+
+    private void enqueue(PendingWrite write) {
+        if (!pendingWrites.offer(write)) {
+            log.warn("Snapshot write-behind queue is full; dropping snapshot {}", write.key());
+            writes("dropped").increment();
+        }
+    }
+
+    private Mono<Void> flush() {
+        return Mono.defer(() -> {
+            List<PendingWrite> drained = new ArrayList<>();
+            pendingWrites.drainTo(drained);
+            // Only the latest snapshot of a list is worth writing
+            Map<String, PendingWrite> latest = new LinkedHashMap<>();
+            drained.forEach(write -> latest.put(write.key(), write));
+            writes("coalesced").increment(drained.size() - latest.size());
+            return Flux.fromIterable(latest.values())
+                    .buffer(batchSize)
+                    .concatMap(this::writeBatch)
+                    .then();
+        });
+    }
+
+    private Mono<Void> writeBatch(List<PendingWrite> batch) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return transactionalOperator.transactional(Flux.fromIterable(batch)
+                        .concatMap(write -> write.write().get())
+                        .then())
+                .doOnSuccess(done -> writes("stored").increment(batch.size()))
+                .onErrorResume(e -> {
+                    log.warn("Writing {} snapshots failed, retrying them one by one: {}", batch.size(),
+                            e.getMessage());
+                    return Flux.fromIterable(batch)
+                            .concatMap(this::writeOne)
+                            .then();
+                })
+                .doFinally(signal -> sample.stop(batchTimer));
+    }
+
+    private Mono<Void> writeOne(PendingWrite write) {
+        return transactionalOperator.transactional(write.write().get())
+                .doOnSuccess(done -> writes("stored").increment())
+                .onErrorResume(e -> {
+                    log.error("Error writing snapshot {}: {}", write.key(), e.getMessage());
+                    writes("failed").increment();
+                    return Mono.empty();
+                });
+    }
+
+    private Counter reads(CacheFamily family, String result) {
+        return Counter.builder("snapshot.reads")
+                .tags("cache", family.cacheName(), "result", result)
+                .description("Snapshot lookups in Postgres after a Redis miss")
+                .register(meterRegistry);
+    }
+
+    private Counter writes(String result) {
+        return Counter.builder("snapshot.writes")
+                .tag("result", result)
+                .description("Snapshots handed to the Postgres write-behind queue, by outcome")
+                .register(meterRegistry);
+    }
+
+    private record PendingWrite(String key, Supplier<Mono<Void>> write) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.opt.githubSearchRepo.service;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import com.opt.githubSearchRepo.exception.InvalidRequestException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import reactor.core.publisher.Flux;
+
+// What a caller wants from a user's repository list: which fields, which branches, and which slice in which
+// order. Fields left out are serialized as absent. A page without an explicit sort is taken in name order, since
+// repositories otherwise arrive in whatever order their branches resolve.
+public record RepositoryQuery(Set<String> fields, String branchPrefix, String sortField, boolean descending,
+                              int offset, Integer limit) {
+    public static final String NAME = "name";
+    public static final String OWNER_LOGIN = "ownerLogin";
+    public static final String BRANCHES = "branches";
+    public static final String PUSHED_AT = "pushedAt";
+    public static final RepositoryQuery ALL = new RepositoryQuery(Set.of(), null, null, false, 0, null);
+
+    private static final Set<String> FIELDS = Set.of(NAME, OWNER_LOGIN, BRANCHES, PUSHED_AT);
+    private static final Set<String> SORTS = Set.of(NAME, PUSHED_AT);
+
+    // fields is comma separated; sort is a field name, prefixed with '-' for descending order
+    public static RepositoryQuery of(String fields, String branchPrefix, String sort, Integer offset,
+                                     Integer limit) {
+        Set<String> selected = fields == null || fields.isBlank() ? Set.of() : Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        selected.stream()
+                .filter(field -> !FIELDS.contains(field))
+                .findFirst()
+                .ifPresent(field -> {
+                    throw new InvalidRequestException("Unknown field: " + field + ", expected some of " + FIELDS);
+                });
+        boolean descending = sort != null && sort.startsWith("-");
+        String sortField = sort == null || sort.isBlank() ? null : sort.substring(descending ? 1 : 0);
+        if (sortField != null && !SORTS.contains(sortField)) {
+            throw new InvalidRequestException("Cannot sort by " + sortField + ", expected one of " + SORTS);
+        }
+        if (offset != null && offset < 0) {
+            throw new InvalidRequestException("offset must not be negative");
+        }
+        if (limit != null && limit < 1) {
+            throw new InvalidRequestException("limit must be positive");
+        }
+        return new RepositoryQuery(selected, branchPrefix == null || branchPrefix.isEmpty() ? null : branchPrefix,
+                sortField, descending, offset == null ? 0 : offset, limit);
+    }
+
+    public boolean selects(String field) {
+        return fields.isEmpty() || fields.contains(field);
+    }
+
+    public boolean isPaged() {
+        return offset > 0 || limit != null;
+    }
+
+    public boolean isUnrestricted() {
+        return equals(ALL);
+    }
+
+    // Sorts and slices the list; without a sort or a page the list keeps streaming as it resolves
+    public Flux<RepositoryInfo> page(Flux<RepositoryInfo> repositories) {
+        if (sortField == null && !isPaged()) {
+            return repositories;
+        }
+        Flux<RepositoryInfo> sorted = repositories.sort(order()).skip(offset);
+        return limit == null ? sorted : sorted.take(limit);
+    }
+
+    public RepositoryInfo project(RepositoryInfo repository) {
+        List<BranchInfo> branches = null;
+        if (selects(BRANCHES) && repository.branches() != null) {
+            branches = branchPrefix == null ? repository.branches() : repository.branches().stream()
+                    .filter(branch -> branch.name().startsWith(branchPrefix))
+                    .toList();
+        }
+        return new RepositoryInfo(selects(NAME) ? repository.name() : null,
+                selects(OWNER_LOGIN) ? repository.ownerLogin() : null,
+                branches,
+                selects(PUSHED_AT) ? repository.pushedAt() : null);
+    }
+
+    public Flux<RepositoryInfo> apply(Flux<RepositoryInfo> repositories) {
+        return page(repositories).map(this::project);
+    }
+
+    // Repositories never pushed to come last in either direction
+    private Comparator<RepositoryInfo> order() {
+        if (PUSHED_AT.equals(sortField)) {
+            return Comparator.comparing(RepositoryInfo::pushedAt, Comparator.nullsLast(descending
+                    ? Comparator.<Instant>reverseOrder()
+                    : Comparator.<Instant>naturalOrder()));
+        }
+        Comparator<RepositoryInfo> byName = Comparator.comparing(RepositoryInfo::name);
+        return descending ? byName.reversed() : byName;
+    }
+}
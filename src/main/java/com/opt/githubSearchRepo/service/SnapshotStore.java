@@ -0,0 +1,21 @@
+package com.opt.githubSearchRepo.service;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import com.opt.githubSearchRepo.repository.Snapshot;
+import reactor.core.publisher.Mono;
+
+public interface SnapshotStore {
+
+    Mono<Snapshot<RepositoryInfo>> findRepositories(String username);
+
+    Mono<Snapshot<BranchInfo>> findBranches(String username, String repositoryName);
+
+    void saveRepositories(String username, Snapshot<RepositoryInfo> snapshot);
+
+    void saveBranches(String username, String repositoryName, Snapshot<BranchInfo> snapshot);
+
+    void expireRepositories(String username);
+
+    void expireBranches(String username, String repositoryName);
+}
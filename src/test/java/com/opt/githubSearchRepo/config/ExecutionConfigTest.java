@@ -0,0 +1,47 @@
+package com.opt.githubSearchRepo.config;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.test.StepVerifier;
+
+class ExecutionConfigTest {
+
+    @Test
+    void virtualThreadModeRunsCacheWorkAndBlockingAdaptersOnVirtualThreads() {
+        ExecutionConfig config = new ExecutionConfig(ExecutionConfig.VIRTUAL_THREADS);
+
+        StepVerifier.create(runsOnVirtualThread(config.cacheScheduler()))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(runsOnVirtualThread(config.blockingScheduler()))
+                .expectNext(true)
+                .verifyComplete();
+        config.disposeVirtualThreads();
+    }
+
+    @Test
+    void eventLoopModeEncodesCacheEntriesOnTheCallingThread() {
+        ExecutionConfig config = new ExecutionConfig(ExecutionConfig.EVENT_LOOP);
+        Thread caller = Thread.currentThread();
+
+        StepVerifier.create(Mono.fromCallable(Thread::currentThread).subscribeOn(config.cacheScheduler()))
+                .assertNext(thread -> assertSame(caller, thread))
+                .verifyComplete();
+        StepVerifier.create(runsOnVirtualThread(config.blockingScheduler()))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void unknownModesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ExecutionConfig("green-threads"));
+    }
+
+    private static Mono<Boolean> runsOnVirtualThread(Scheduler scheduler) {
+        return Mono.fromCallable(() -> Thread.currentThread().isVirtual()).subscribeOn(scheduler);
+    }
+}
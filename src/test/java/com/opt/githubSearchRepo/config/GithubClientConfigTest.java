@@ -0,0 +1,117 @@
+package com.opt.githubSearchRepo.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+// The stub has no TLS, so HTTP/2 is spoken with prior knowledge (H2C) instead of being negotiated
+class GithubClientConfigTest {
+    private static final HttpProtocol[] H2C = {HttpProtocol.H2C};
+
+    private final GithubClientConfig config = new GithubClientConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger http2Requests = new AtomicInteger();
+    private final Set<Object> connections = ConcurrentHashMap.newKeySet();
+    private final DisposableServer server = HttpServer.create()
+            .host("localhost")
+            .port(0)
+            .protocol(HttpProtocol.H2C, HttpProtocol.HTTP11)
+            .http2Settings(settings -> settings.maxConcurrentStreams(100))
+            .doOnChannelInit((observer, channel, address) -> connections.add(channel))
+            .doOnConnection(connection -> {
+                if (connection.channel() instanceof Http2StreamChannel) {
+                    http2Requests.incrementAndGet();
+                }
+            })
+            .route(routes -> routes
+                    .get("/users/{user}", (request, response) -> response.sendString(Mono.just("{}")
+                            .delayElement(Duration.ofMillis(50))))
+                    .get("/slow", (request, response) -> response.sendString(Mono.just("{}")
+                            .delayElement(Duration.ofSeconds(5)))))
+            .bindNow();
+    private final String baseUrl = "http://localhost:" + server.port();
+    private ConnectionProvider connectionProvider;
+
+    @AfterEach
+    void tearDown() {
+        connectionProvider.disposeLater().block();
+        server.disposeNow();
+    }
+
+    @Test
+    void concurrentCallsAreMultiplexedOverOneHttp2Connection() {
+        WebClient client = client(H2C, Duration.ofSeconds(5));
+
+        StepVerifier.create(Flux.range(0, 20)
+                        .flatMap(i -> client.get().uri("/users/user" + i).retrieve().bodyToMono(String.class)))
+                .expectNextCount(20)
+                .verifyComplete();
+
+        assertThat(http2Requests).hasValue(20);
+        assertThat(connections).hasSize(1);
+    }
+
+    @Test
+    void http11CallsAreNotCappedByTheHttp2ConnectionLimit() {
+        WebClient client = client(new HttpProtocol[] {HttpProtocol.HTTP11}, Duration.ofSeconds(5));
+
+        StepVerifier.create(Flux.range(0, 5)
+                        .flatMap(i -> client.get().uri("/users/user" + i).retrieve().bodyToMono(String.class)))
+                .expectNextCount(5)
+                .verifyComplete();
+
+        assertThat(http2Requests).hasValue(0);
+        assertThat(connections).hasSize(5);
+    }
+
+    @Test
+    void poolMetricsAreRegisteredPerRemoteAddress() {
+        client(H2C, Duration.ofSeconds(5)).get().uri("/users/octocat").retrieve().bodyToMono(String.class).block();
+
+        String remote = "localhost:" + server.port();
+        String pool = "http2." + GithubClientConfig.POOL_NAME;
+        assertThat(meterRegistry.get("github.client.pool.active").tags("pool", pool, "remote", remote).gauge()
+                .value()).isZero();
+        assertThat(meterRegistry.get("github.client.pool.idle").tags("pool", pool, "remote", remote).gauge()
+                .value()).isEqualTo(1);
+        assertThat(meterRegistry.get("github.client.pool.pending").tags("pool", pool, "remote", remote).gauge()
+                .value()).isZero();
+        assertThat(meterRegistry.get("github.client.pool.allocated").tags("pool", pool, "remote", remote).gauge()
+                .value()).isEqualTo(1);
+    }
+
+    @Test
+    void callsSlowerThanTheResponseTimeoutFail() {
+        StepVerifier.create(client(H2C, Duration.ofMillis(200)).get().uri("/slow").retrieve()
+                        .bodyToMono(String.class))
+                .expectError(WebClientRequestException.class)
+                .verify(Duration.ofSeconds(3));
+    }
+
+    private WebClient client(HttpProtocol[] protocols, Duration responseTimeout) {
+        connectionProvider = config.githubConnectionProvider(meterRegistry, baseUrl, protocols, 10, 100,
+                Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(10), Duration.ofSeconds(15), 1,
+                100);
+        return WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(config.githubClientHttpConnector(connectionProvider, protocols,
+                        Duration.ofSeconds(1), Duration.ofSeconds(1), responseTimeout))
+                .build();
+    }
+}
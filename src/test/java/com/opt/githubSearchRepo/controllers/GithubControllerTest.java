@@ -0,0 +1,140 @@
+package com.opt.githubSearchRepo.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.BulkRepositoriesRequest;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import com.opt.githubSearchRepo.dto.UserRepositories;
+import com.opt.githubSearchRepo.exception.GlobalExceptionHandler;
+import com.opt.githubSearchRepo.exception.UserNotFoundException;
+import com.opt.githubSearchRepo.service.BulkRepositorySearchService;
+import com.opt.githubSearchRepo.service.ConcurrencyBudget;
+import com.opt.githubSearchRepo.service.GithubService;
+import com.opt.githubSearchRepo.service.RepositoryQuery;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class GithubControllerTest {
+    private static final RepositoryInfo FAST = new RepositoryInfo("fast", "octocat",
+            List.of(new BranchInfo("main", "abc123")));
+    private static final RepositoryInfo SLOW = new RepositoryInfo("slow", "octocat", List.of());
+
+    private GithubService githubService;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        githubService = mock(GithubService.class);
+        when(githubService.getNonForkRepositories("octocat"))
+                .thenReturn(Flux.concat(Flux.just(FAST), Flux.just(SLOW).delayElements(Duration.ofSeconds(1))));
+        when(githubService.getNonForkRepositories("ghost"))
+                .thenReturn(Flux.error(new UserNotFoundException("GitHub user not found: ghost")));
+        BulkRepositorySearchService bulkService = new BulkRepositorySearchService(githubService,
+                new ConcurrencyBudget(new SimpleMeterRegistry(), 2), 2, 10);
+        webTestClient = WebTestClient.bindToController(new GithubController(githubService, bulkService))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void repositoriesAreStreamedAsNdjsonBeforeTheSlowestOneResolves() {
+        Flux<RepositoryInfo> body = webTestClient.get()
+                .uri("/api/github/users/octocat/repos")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(RepositoryInfo.class)
+                .getResponseBody();
+
+        StepVerifier.create(body)
+                .expectNext(FAST)
+                .expectNoEvent(Duration.ofMillis(500))
+                .expectNext(SLOW)
+                .verifyComplete();
+    }
+
+    @Test
+    void repositoriesAreStreamedAsServerSentEvents() {
+        Flux<RepositoryInfo> body = webTestClient.get()
+                .uri("/api/github/users/octocat/repos")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(RepositoryInfo.class)
+                .getResponseBody();
+
+        StepVerifier.create(body)
+                .expectNext(FAST, SLOW)
+                .verifyComplete();
+    }
+
+    @Test
+    void queryParametersArePassedDownAndLeftOutFieldsAreOmitted() {
+        RepositoryQuery query = RepositoryQuery.of("name", "feat", "-name", 0, 1);
+        when(githubService.getNonForkRepositories("octocat", query))
+                .thenReturn(Flux.just(new RepositoryInfo("slow", null, null, null)));
+
+        webTestClient.get()
+                .uri("/api/github/users/octocat/repos?fields=name&branchPrefix=feat&sort=-name&offset=0&limit=1")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].name").isEqualTo("slow")
+                .jsonPath("$[0].ownerLogin").doesNotExist()
+                .jsonPath("$[0].branches").doesNotExist();
+    }
+
+    @Test
+    void unknownFieldsAreRejected() {
+        webTestClient.get()
+                .uri("/api/github/users/octocat/repos?fields=name,stars")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void bulkSearchStreamsOneEntryPerUserIncludingErrors() {
+        Flux<UserRepositories> body = webTestClient.post()
+                .uri("/api/github/users/repos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(new BulkRepositoriesRequest(List.of("ghost", "octocat", "ghost")))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(UserRepositories.class)
+                .getResponseBody();
+
+        StepVerifier.create(body)
+                .assertNext(entry -> {
+                    assertEquals("ghost", entry.username());
+                    assertNull(entry.repositories());
+                    assertEquals(404, entry.error().status());
+                })
+                .expectNext(UserRepositories.success("octocat", List.of(FAST, SLOW)))
+                .verifyComplete();
+    }
+
+    @Test
+    void bulkSearchRejectsAnEmptyBatch() {
+        webTestClient.post()
+                .uri("/api/github/users/repos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BulkRepositoriesRequest(List.of()))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,298 @@
+package com.opt.githubSearchRepo.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import com.opt.githubSearchRepo.exception.GlobalExceptionHandler;
+import com.opt.githubSearchRepo.repository.Snapshot;
+import com.opt.githubSearchRepo.service.CachePolicies;
+import com.opt.githubSearchRepo.service.CachePolicy;
+import com.opt.githubSearchRepo.service.CacheSerializer;
+import com.opt.githubSearchRepo.service.CacheService;
+import com.opt.githubSearchRepo.service.GithubWebhookService;
+import com.opt.githubSearchRepo.service.SnapshotStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// Replays recorded GitHub deliveries from src/test/resources/webhooks, signed like GitHub signs them, against the
+// webhook endpoint backed by a real cache service over a mocked Redis.
+class GithubWebhookControllerTest {
+    private static final String SECRET = "It's a Secret to Everybody";
+    private static final String BRANCHES_KEY = "octocat-hello-world";
+    private static final String REPOSITORIES_KEY = "repos-octocat";
+    private static final String REPOSITORY_LIST_KEY = "repo-list:octocat";
+    private static final Instant PUSHED_AT = Instant.parse("2024-06-01T12:00:00Z");
+    private static final List<BranchInfo> BRANCHES = List.of(new BranchInfo("dev", "def456"),
+            new BranchInfo("main", "abc123"));
+    private static final RepositoryInfo SPOON_KNIFE = new RepositoryInfo("Spoon-Knife", "octocat", List.of());
+
+    private ReactiveRedisTemplate<String, byte[]> redisTemplate;
+    private ReactiveHashOperations<String, String, byte[]> hashOperations;
+    private CacheSerializer serializer;
+    private SnapshotStore snapshotStore;
+    private SimpleMeterRegistry meterRegistry;
+    private Map<String, byte[]> written;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(ReactiveRedisTemplate.class);
+        hashOperations = mock(ReactiveHashOperations.class);
+        when(redisTemplate.<String, byte[]>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.multiGet(anyString(), anyList())).thenReturn(Mono.just(Arrays.asList(null, null, null,
+                null)));
+        written = new ConcurrentHashMap<>();
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenAnswer(invocation -> {
+            List<String> keys = invocation.getArgument(1);
+            List<byte[]> args = invocation.getArgument(2);
+            written.put(keys.get(0), args.get(0));
+            return Flux.just(1L);
+        });
+        when(redisTemplate.delete(anyString())).thenReturn(Mono.just(1L));
+        when(redisTemplate.convertAndSend(anyString(), any(byte[].class))).thenReturn(Mono.just(1L));
+        snapshotStore = mock(SnapshotStore.class);
+
+        meterRegistry = new SimpleMeterRegistry();
+        serializer = new CacheSerializer(meterRegistry, "smile", 4096);
+        CachePolicy policy = new CachePolicy(Duration.ofMinutes(10), 0, Duration.ofMinutes(5), Duration.ofMinutes(1));
+        CacheService cacheService = new CacheService(redisTemplate, serializer, meterRegistry,
+                new CachePolicies(policy, policy), Duration.ofHours(1), 100, Duration.ofMinutes(1),
+                "github-cache-invalidation", Schedulers.immediate(),
+                Schedulers.boundedElastic());
+        GithubWebhookService webhookService = new GithubWebhookService(cacheService, snapshotStore,
+                Jackson2ObjectMapperBuilder.json().build(), meterRegistry, SECRET);
+        webTestClient = WebTestClient.bindToController(new GithubWebhookController(webhookService))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void pushToABranchUpdatesItsCommitInBothListsInPlace() throws IOException {
+        givenCachedBranchesAndRepositories();
+
+        replay("push", "push.json").expectStatus().isNoContent();
+
+        List<BranchInfo> pushed = List.of(new BranchInfo("dev", "def456"),
+                new BranchInfo("main", "a10867b14bb761a232cd80139fbd4c0d33264240"));
+        assertThat(writtenList(BRANCHES_KEY, BranchInfo.class)).isEqualTo(pushed);
+        assertThat(writtenList(REPOSITORIES_KEY, RepositoryInfo.class)).containsExactly(
+                new RepositoryInfo("Hello-World", "octocat", pushed, Instant.ofEpochSecond(1717316130)),
+                SPOON_KNIFE);
+        verify(snapshotStore).saveBranches(eq("octocat"), eq("Hello-World"), withData(pushed));
+        verify(redisTemplate, never()).delete(BRANCHES_KEY);
+        verify(redisTemplate, never()).delete(REPOSITORIES_KEY);
+        verify(redisTemplate).delete(REPOSITORY_LIST_KEY);
+        assertThat(meterRegistry.get("github.webhook.entries").tag("result", "updated").counters()).hasSize(2);
+    }
+
+    @Test
+    void deliveriesForAMixedCaseLoginPatchTheEntriesOfTheLowerCaseRequestPath() throws IOException {
+        givenCachedBranchesAndRepositories();
+        byte[] payload = new String(recording("push.json"), StandardCharsets.UTF_8)
+                .replace("\"login\": \"octocat\",", "\"login\": \"Octocat\",")
+                .getBytes(StandardCharsets.UTF_8);
+
+        replay("push", payload).expectStatus().isNoContent();
+
+        assertThat(writtenList(BRANCHES_KEY, BranchInfo.class)).extracting(BranchInfo::commitSha)
+                .containsExactly("def456", "a10867b14bb761a232cd80139fbd4c0d33264240");
+        assertThat(written).containsKey(REPOSITORIES_KEY);
+        verify(redisTemplate, never()).delete(BRANCHES_KEY);
+        verify(redisTemplate, never()).delete(REPOSITORIES_KEY);
+        verify(redisTemplate).delete(REPOSITORY_LIST_KEY);
+    }
+
+    @Test
+    void pushCreatingABranchInsertsItInNameOrder() throws IOException {
+        givenCachedBranchesAndRepositories();
+
+        replay("push", "push-new-branch.json").expectStatus().isNoContent();
+
+        assertThat(writtenList(BRANCHES_KEY, BranchInfo.class)).extracting(BranchInfo::name)
+                .containsExactly("dev", "feature", "main");
+    }
+
+    @Test
+    void deletedBranchIsRemovedFromBothLists() throws IOException {
+        givenCachedBranchesAndRepositories();
+
+        replay("delete", "delete-branch.json").expectStatus().isNoContent();
+
+        assertThat(writtenList(BRANCHES_KEY, BranchInfo.class)).containsExactly(new BranchInfo("main", "abc123"));
+        assertThat(writtenList(REPOSITORIES_KEY, RepositoryInfo.class).get(0).branches())
+                .containsExactly(new BranchInfo("main", "abc123"));
+    }
+
+    @Test
+    void createdBranchWhosePushHasNotArrivedEvictsTheListsAndTheirSnapshots() throws IOException {
+        givenCachedBranchesAndRepositories();
+
+        replay("create", "create-branch.json").expectStatus().isNoContent();
+
+        assertThat(written).isEmpty();
+        verify(redisTemplate).delete(BRANCHES_KEY);
+        verify(redisTemplate).delete(REPOSITORIES_KEY);
+        verify(snapshotStore).expireBranches("octocat", "Hello-World");
+        verify(snapshotStore).expireRepositories("octocat");
+    }
+
+    @Test
+    void uncachedListsAreEvictedSoStoredSnapshotsAreNotServedAgain() throws IOException {
+        replay("push", "push.json").expectStatus().isNoContent();
+
+        verify(redisTemplate).delete(BRANCHES_KEY);
+        verify(snapshotStore).expireBranches("octocat", "Hello-World");
+        verify(snapshotStore).expireRepositories("octocat");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void entriesReplacedWhileBeingPatchedAreEvictedRatherThanOverwritten() throws IOException {
+        givenCachedBranchesAndRepositories();
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(0L));
+
+        replay("push", "push.json").expectStatus().isNoContent();
+
+        verify(redisTemplate).delete(BRANCHES_KEY);
+        verify(redisTemplate).delete(REPOSITORIES_KEY);
+        verify(snapshotStore, never()).saveBranches(anyString(), anyString(), any());
+    }
+
+    @Test
+    void deletedRepositoryIsDroppedFromTheListAndItsBranchesEvicted() throws IOException {
+        givenCachedBranchesAndRepositories();
+
+        replay("repository", "repository-deleted.json").expectStatus().isNoContent();
+
+        assertThat(writtenList(REPOSITORIES_KEY, RepositoryInfo.class)).containsExactly(SPOON_KNIFE);
+        verify(redisTemplate).delete(BRANCHES_KEY);
+    }
+
+    @Test
+    void renamedRepositoryEvictsTheListAndBranchesUnderTheOldName() throws IOException {
+        givenCachedBranchesAndRepositories();
+
+        replay("repository", "repository-renamed.json").expectStatus().isNoContent();
+
+        verify(redisTemplate).delete(BRANCHES_KEY);
+        verify(redisTemplate).delete(REPOSITORIES_KEY);
+    }
+
+    @Test
+    void tagPushesAndOtherEventsAreAcknowledgedWithoutTouchingTheCache() throws IOException {
+        replay("push", "push-tag.json").expectStatus().isNoContent();
+        replay("ping", "ping.json").expectStatus().isNoContent();
+
+        verifyNoInteractions(redisTemplate, snapshotStore);
+        assertThat(meterRegistry.get("github.webhook.deliveries").tags("event", "other", "result", "ignored")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void deliveriesWithoutAValidSignatureAreRejected() throws IOException {
+        webTestClient.post()
+                .uri("/api/github/webhooks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(GithubWebhookController.EVENT_HEADER, "push")
+                .header(GithubWebhookController.SIGNATURE_HEADER, sign("{}".getBytes(StandardCharsets.UTF_8)))
+                .bodyValue(recording("push.json"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.UNAUTHORIZED);
+        webTestClient.post()
+                .uri("/api/github/webhooks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(GithubWebhookController.EVENT_HEADER, "push")
+                .bodyValue(recording("push.json"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        verifyNoInteractions(redisTemplate, snapshotStore);
+    }
+
+    private WebTestClient.ResponseSpec replay(String event, String recording) throws IOException {
+        return replay(event, recording(recording));
+    }
+
+    private WebTestClient.ResponseSpec replay(String event, byte[] payload) {
+        return webTestClient.post()
+                .uri("/api/github/webhooks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(GithubWebhookController.EVENT_HEADER, event)
+                .header(GithubWebhookController.SIGNATURE_HEADER, sign(payload))
+                .bodyValue(payload)
+                .exchange();
+    }
+
+    private void givenCachedBranchesAndRepositories() throws IOException {
+        givenCached(BRANCHES_KEY, BRANCHES);
+        givenCached(REPOSITORIES_KEY, List.of(new RepositoryInfo("Hello-World", "octocat", BRANCHES, PUSHED_AT),
+                SPOON_KNIFE));
+    }
+
+    private void givenCached(String key, List<?> data) throws IOException {
+        when(hashOperations.multiGet(eq(key), anyList())).thenReturn(Mono.just(List.of(serializer.serialize(data),
+                "\"v1\"".getBytes(StandardCharsets.UTF_8), new byte[0],
+                String.valueOf(Instant.now().plusSeconds(60).toEpochMilli()).getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private <T> List<T> writtenList(String key, Class<T> type) throws IOException {
+        assertThat(written).containsKey(key);
+        return serializer.deserialize(written.get(key), type);
+    }
+
+    private static <T> Snapshot<T> withData(List<T> data) {
+        return argThat(snapshot -> snapshot.data().equals(data) && snapshot.etag() == null);
+    }
+
+    private static byte[] recording(String name) throws IOException {
+        try (InputStream in = GithubWebhookControllerTest.class.getResourceAsStream("/webhooks/" + name)) {
+            assertThat(in).as("recorded payload %s", name).isNotNull();
+            return in.readAllBytes();
+        }
+    }
+
+    private static String sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return "sha256=" + HexFormat.of().formatHex(mac.doFinal(payload));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
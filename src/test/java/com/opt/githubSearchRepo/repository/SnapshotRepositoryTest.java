@@ -0,0 +1,170 @@
+package com.opt.githubSearchRepo.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import io.r2dbc.spi.ConnectionFactories;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+class SnapshotRepositoryTest {
+    private static final Instant FETCHED_AT = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    private static final Instant LONG_AGO = FETCHED_AT.minus(Duration.ofDays(1));
+    private static final RepositoryInfo HELLO = new RepositoryInfo("hello", "Octocat",
+            List.of(new BranchInfo("main", "abc123"), new BranchInfo("dev", "def456")), LONG_AGO);
+    private static final RepositoryInfo EMPTY = new RepositoryInfo("empty", "Octocat", List.of());
+
+    private SnapshotRepository repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String database = "snapshots-" + UUID.randomUUID();
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1"));
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+        repository = new SnapshotRepository(DatabaseClient.create(
+                ConnectionFactories.get("r2dbc:h2:mem:///" + database + ";DB_CLOSE_DELAY=-1")));
+    }
+
+    @Test
+    void repositoryListsAreReadBackInOrderWithTheirBranchesAndValidators() {
+        repository.saveRepositories("octocat", new Snapshot<>(List.of(HELLO, EMPTY), "\"v1\"", null, FETCHED_AT))
+                .block();
+
+        StepVerifier.create(repository.findRepositories("octocat", LONG_AGO))
+                .expectNext(new Snapshot<>(List.of(HELLO, EMPTY), "\"v1\"", null, FETCHED_AT))
+                .verifyComplete();
+        StepVerifier.create(repository.findBranches("octocat", "hello", LONG_AGO))
+                .assertNext(branches -> assertThat(branches.data()).isEqualTo(HELLO.branches()))
+                .verifyComplete();
+    }
+
+    @Test
+    void usersWithoutRepositoriesAreStoredAsEmptyLists() {
+        repository.saveRepositories("ghost", new Snapshot<>(List.of(), null, null, FETCHED_AT)).block();
+
+        StepVerifier.create(repository.findRepositories("ghost", LONG_AGO))
+                .assertNext(snapshot -> assertThat(snapshot.data()).isEmpty())
+                .verifyComplete();
+    }
+
+    @Test
+    void olderSnapshotsNeverReplaceNewerOnes() {
+        repository.saveRepositories("octocat", new Snapshot<>(List.of(HELLO), "\"new\"", null, FETCHED_AT)).block();
+        repository.saveRepositories("octocat", new Snapshot<>(List.of(EMPTY), "\"old\"", null,
+                FETCHED_AT.minusSeconds(60))).block();
+        repository.saveBranches("octocat", "hello", new Snapshot<>(List.of(), "\"old\"", null,
+                FETCHED_AT.minusSeconds(60))).block();
+
+        StepVerifier.create(repository.findRepositories("octocat", LONG_AGO))
+                .assertNext(snapshot -> {
+                    assertThat(snapshot.data()).containsExactly(HELLO);
+                    assertThat(snapshot.etag()).isEqualTo("\"new\"");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void repositoriesDroppedFromTheListAreForgotten() {
+        repository.saveRepositories("octocat", new Snapshot<>(List.of(HELLO, EMPTY), null, null,
+                FETCHED_AT.minusSeconds(60))).block();
+        repository.saveRepositories("octocat", new Snapshot<>(List.of(EMPTY), null, null, FETCHED_AT)).block();
+
+        StepVerifier.create(repository.findRepositories("octocat", LONG_AGO))
+                .assertNext(snapshot -> assertThat(snapshot.data()).containsExactly(EMPTY))
+                .verifyComplete();
+        StepVerifier.create(repository.findBranches("octocat", "hello", LONG_AGO))
+                .verifyComplete();
+    }
+
+    @Test
+    void branchesOfRepositoriesOutsideTheListAreKeptOnTheirOwn() {
+        List<BranchInfo> branches = List.of(new BranchInfo("main", "abc123"));
+        repository.saveBranches("octocat", "fork", new Snapshot<>(branches, null, "yesterday", FETCHED_AT)).block();
+
+        StepVerifier.create(repository.findBranches("octocat", "fork", LONG_AGO))
+                .expectNext(new Snapshot<>(branches, null, "yesterday", FETCHED_AT))
+                .verifyComplete();
+        StepVerifier.create(repository.findRepositories("octocat", LONG_AGO))
+                .verifyComplete();
+    }
+
+    @Test
+    void savingTheRepositoryListKeepsBranchesOfRepositoriesOutsideIt() {
+        List<BranchInfo> branches = List.of(new BranchInfo("main", "abc123"));
+        repository.saveBranches("octocat", "fork", new Snapshot<>(branches, null, null, FETCHED_AT)).block();
+        repository.saveRepositories("octocat", new Snapshot<>(List.of(HELLO), null, null, FETCHED_AT)).block();
+        repository.saveRepositories("octocat", new Snapshot<>(List.of(EMPTY), null, null, FETCHED_AT)).block();
+
+        StepVerifier.create(repository.findBranches("octocat", "fork", LONG_AGO))
+                .expectNext(new Snapshot<>(branches, null, null, FETCHED_AT))
+                .verifyComplete();
+        StepVerifier.create(repository.findRepositories("octocat", LONG_AGO))
+                .assertNext(snapshot -> assertThat(snapshot.data()).containsExactly(EMPTY))
+                .verifyComplete();
+    }
+
+    @Test
+    void expiredSnapshotsAreSkippedUntilTheNextWrite() {
+        repository.saveRepositories("octocat", new Snapshot<>(List.of(HELLO), null, null, FETCHED_AT)).block();
+        repository.expireRepositories("octocat").block();
+        repository.expireBranches("octocat", "hello").block();
+
+        StepVerifier.create(repository.findRepositories("octocat", LONG_AGO))
+                .verifyComplete();
+        StepVerifier.create(repository.findBranches("octocat", "hello", LONG_AGO))
+                .verifyComplete();
+
+        repository.saveRepositories("octocat", new Snapshot<>(List.of(EMPTY), null, null, FETCHED_AT)).block();
+        StepVerifier.create(repository.findRepositories("octocat", LONG_AGO))
+                .assertNext(snapshot -> assertThat(snapshot.data()).containsExactly(EMPTY))
+                .verifyComplete();
+    }
+
+    @Test
+    void repositoryNamesMatchRegardlessOfCaseAndListsKeepTheirOwn() {
+        RepositoryInfo listed = new RepositoryInfo("Hello", "Octocat", HELLO.branches(), LONG_AGO);
+        List<BranchInfo> pushed = List.of(new BranchInfo("main", "fed789"));
+        repository.saveRepositories("octocat", new Snapshot<>(List.of(listed), null, null, FETCHED_AT)).block();
+        repository.saveBranches("octocat", "Fork", new Snapshot<>(pushed, null, null, FETCHED_AT)).block();
+        repository.saveBranches("octocat", "HELLO", new Snapshot<>(pushed, null, null, FETCHED_AT.plusSeconds(1)))
+                .block();
+
+        StepVerifier.create(repository.findRepositories("octocat", LONG_AGO))
+                .assertNext(snapshot -> assertThat(snapshot.data()).containsExactly(
+                        new RepositoryInfo("Hello", "Octocat", pushed, LONG_AGO)))
+                .verifyComplete();
+
+        repository.expireBranches("octocat", "hello").block();
+        repository.expireBranches("octocat", "fork").block();
+        StepVerifier.create(repository.findBranches("octocat", "Hello", LONG_AGO))
+                .verifyComplete();
+        StepVerifier.create(repository.findBranches("octocat", "Fork", LONG_AGO))
+                .verifyComplete();
+    }
+
+    @Test
+    void snapshotsOutsideTheFreshnessWindowAreSkipped() {
+        repository.saveRepositories("octocat", new Snapshot<>(List.of(HELLO), null, null, LONG_AGO)).block();
+
+        StepVerifier.create(repository.findRepositories("octocat", FETCHED_AT.minus(Duration.ofHours(1))))
+                .verifyComplete();
+        StepVerifier.create(repository.findRecentUsernames(LONG_AGO.minusSeconds(1), 10))
+                .expectNext("octocat")
+                .verifyComplete();
+    }
+}
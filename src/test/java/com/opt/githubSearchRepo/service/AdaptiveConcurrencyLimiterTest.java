@@ -0,0 +1,118 @@
+package com.opt.githubSearchRepo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.opt.githubSearchRepo.exception.GithubRateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class AdaptiveConcurrencyLimiterTest {
+    private static final long MILLIS = Duration.ofMillis(1).toNanos();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(meterRegistry, 10, 1, 20, 0.7,
+            2.0);
+
+    @Test
+    void neverAdmitsMoreTasksThanTheLimit() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        Flux<Integer> tasks = Flux.range(0, 50)
+                .flatMap(i -> limiter.withPermit(Mono.just(i)
+                        .doOnSubscribe(subscription -> peak.accumulateAndGet(running.incrementAndGet(), Math::max))
+                        .delayElement(Duration.ofMillis(10))
+                        .doOnTerminate(running::decrementAndGet)));
+
+        StepVerifier.create(tasks)
+                .expectNextCount(50)
+                .verifyComplete();
+        assertTrue(peak.get() <= 10);
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void throttledResponsesCutTheLimitOncePerRoundOfCalls() {
+        long round = System.nanoTime();
+        limiter.onResponse(round, round + MILLIS, response(HttpStatus.TOO_MANY_REQUESTS));
+        limiter.onResponse(round, round + MILLIS, response(HttpStatus.TOO_MANY_REQUESTS));
+        assertEquals(7, limiter.currentLimit());
+
+        long nextRound = System.nanoTime();
+        limiter.onResponse(nextRound, nextRound + MILLIS, ClientResponse.create(HttpStatus.FORBIDDEN)
+                .header(GithubTokenPool.RATE_LIMIT_REMAINING, "0")
+                .build());
+        assertEquals(4, limiter.currentLimit());
+        assertEquals(2, meterRegistry.get("github.fanout.limit.cuts").tag("reason", "throttled").counter().count());
+    }
+
+    @Test
+    void forbiddenResponsesWithRateLimitLeftDoNotCutTheLimit() {
+        long startedAt = System.nanoTime();
+        limiter.onResponse(startedAt, startedAt + MILLIS, ClientResponse.create(HttpStatus.FORBIDDEN)
+                .header(GithubTokenPool.RATE_LIMIT_REMAINING, "4999")
+                .build());
+
+        assertEquals(10, limiter.currentLimit());
+    }
+
+    @Test
+    void callsShedByTheTokenPoolCutTheLimit() {
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("https://api.github.com/users")).build();
+
+        StepVerifier.create(limiter.filter(request, next -> Mono.error(
+                        new GithubRateLimitExceededException("budget exhausted", Duration.ofSeconds(1)))))
+                .verifyError(GithubRateLimitExceededException.class);
+        assertEquals(7, limiter.currentLimit());
+    }
+
+    @Test
+    void promptResponsesGrowTheLimitOnlyWhileItIsUsed() {
+        long startedAt = System.nanoTime();
+        limiter.onResponse(startedAt, startedAt + 10 * MILLIS, response(HttpStatus.OK));
+        assertEquals(10, limiter.currentLimit());
+
+        Sinks.Empty<Void> gate = Sinks.empty();
+        final Disposable holders = Flux.range(0, 11)
+                .flatMap(i -> limiter.withPermit(gate.asMono()))
+                .subscribe();
+        assertEquals(1, limiter.waiting());
+        for (int i = 0; i < 12; i++) {
+            limiter.onResponse(startedAt, startedAt + 10 * MILLIS, response(HttpStatus.OK));
+        }
+
+        assertEquals(11, limiter.currentLimit());
+        assertEquals(0, limiter.waiting());
+        holders.dispose();
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void responsesFarSlowerThanAverageCutTheLimit() {
+        long startedAt = System.nanoTime();
+        limiter.onResponse(startedAt, startedAt + 10 * MILLIS, response(HttpStatus.OK));
+        limiter.onResponse(startedAt, startedAt + 15 * MILLIS, response(HttpStatus.OK));
+        assertEquals(10, limiter.currentLimit());
+
+        limiter.onResponse(startedAt, startedAt + 50 * MILLIS, response(HttpStatus.OK));
+        assertEquals(7, limiter.currentLimit());
+        assertEquals(1, meterRegistry.get("github.fanout.limit.cuts").tag("reason", "latency").counter().count());
+    }
+
+    private static ClientResponse response(HttpStatus status) {
+        return ClientResponse.create(status).build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.opt.githubSearchRepo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+@Slf4j
+class CacheSerializerTest {
+    private static final int ROUNDS = 200;
+    private static final List<RepositoryInfo> REPOSITORIES = IntStream.range(0, 100)
+            .mapToObj(repo -> new RepositoryInfo("repository-" + repo, "octocat", IntStream.range(0, 10)
+                    .mapToObj(branch -> new BranchInfo("feature/branch-" + branch,
+                            "%040x".formatted(repo * 1000L + branch)))
+                    .toList()))
+            .toList();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void decodesIntoTheRequestedElementType() throws IOException {
+        CacheSerializer serializer = new CacheSerializer(meterRegistry, "smile", 0);
+
+        List<RepositoryInfo> decoded = serializer.deserialize(serializer.serialize(REPOSITORIES),
+                RepositoryInfo.class);
+
+        assertThat(decoded).isEqualTo(REPOSITORIES);
+        assertThat(decoded.get(0).branches().get(0)).isInstanceOf(BranchInfo.class);
+    }
+
+    @Test
+    void readsEntriesWrittenByEitherCodecCompressedOrNot() throws IOException {
+        CacheSerializer smile = new CacheSerializer(meterRegistry, "smile", 1024);
+        byte[] legacyJson = "[{\"name\":\"main\",\"commitSha\":\"abc123\"}]".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(smile.deserialize(legacyJson, BranchInfo.class))
+                .containsExactly(new BranchInfo("main", "abc123"));
+        assertThat(smile.deserialize(new CacheSerializer(meterRegistry, "json", 1024).serialize(REPOSITORIES),
+                RepositoryInfo.class)).isEqualTo(REPOSITORIES);
+        assertThat(smile.deserialize(smile.serialize(REPOSITORIES), RepositoryInfo.class)).isEqualTo(REPOSITORIES);
+    }
+
+    @Test
+    void rejectsUnknownCodecs() {
+        assertThatThrownBy(() -> new CacheSerializer(meterRegistry, "xml", 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void binaryAndCompressedEntriesAreSmallerThanJson() throws IOException {
+        int json = measure("json", new CacheSerializer(meterRegistry, "json", 0));
+        int smile = measure("smile", new CacheSerializer(meterRegistry, "smile", 0));
+        int smileCompressed = measure("smile+gzip", new CacheSerializer(meterRegistry, "smile", 1));
+
+        assertThat(smile).isLessThan(json);
+        assertThat(smileCompressed).isLessThan(smile);
+    }
+
+    private int measure(String label, CacheSerializer serializer) throws IOException {
+        byte[] bytes = serializer.serialize(REPOSITORIES);
+        long encodeStart = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            bytes = serializer.serialize(REPOSITORIES);
+        }
+        long encodeMicros = (System.nanoTime() - encodeStart) / 1_000 / ROUNDS;
+        long decodeStart = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            serializer.deserialize(bytes, RepositoryInfo.class);
+        }
+        long decodeMicros = (System.nanoTime() - decodeStart) / 1_000 / ROUNDS;
+        log.info("{}: {} bytes, {} us encode, {} us decode", label, bytes.length, encodeMicros, decodeMicros);
+        return bytes.length;
+    }
+}
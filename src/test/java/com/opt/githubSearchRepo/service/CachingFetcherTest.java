@@ -0,0 +1,107 @@
+package com.opt.githubSearchRepo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class CachingFetcherTest {
+    private static final String POPULAR = "repos-popular";
+    private static final String RARE = "repos-rare";
+
+    private CacheService cacheService;
+    private SimpleMeterRegistry meterRegistry;
+    private CachingFetcher cachingFetcher;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = mock(CacheService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        CachePolicy policy = new CachePolicy(Duration.ofMinutes(10), 0.1, Duration.ofMinutes(5),
+                Duration.ofMinutes(1));
+        cachingFetcher = new CachingFetcher(cacheService,
+                new InFlightRequestRegistry(meterRegistry, Duration.ofSeconds(30)),
+                new CachePolicies(policy, policy), meterRegistry, Duration.ofMillis(100), 2, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cachingFetcher.stopRefreshAhead();
+    }
+
+    @Test
+    void entriesBeyondTheStaleWindowAreFetchedBeforeResponding() {
+        givenEntry(POPULAR, Instant.now().minus(Duration.ofMinutes(6)));
+        AtomicInteger fetches = new AtomicInteger();
+
+        StepVerifier.create(cachingFetcher.fetch(POPULAR, String.class, stale -> Flux.defer(() -> {
+            fetches.incrementAndGet();
+            return Flux.just("fetched");
+        })))
+                .expectNext("fetched")
+                .verifyComplete();
+        assertThat(fetches).hasValue(1);
+    }
+
+    @Test
+    void popularEntriesAreRefreshedBeforeTheyExpire() {
+        givenEntry(POPULAR, Instant.now().plusSeconds(30));
+        givenEntry(RARE, Instant.now().plusSeconds(30));
+        AtomicInteger popularRefreshes = new AtomicInteger();
+        AtomicInteger rareRefreshes = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            cachingFetcher.fetch(POPULAR, String.class, refreshCounter(popularRefreshes)).blockLast();
+        }
+        cachingFetcher.fetch(RARE, String.class, refreshCounter(rareRefreshes)).blockLast();
+        cachingFetcher.startRefreshAhead();
+
+        Mono.delay(Duration.ofMillis(500)).block();
+        assertThat(popularRefreshes).hasValue(1);
+        assertThat(rareRefreshes).hasValue(0);
+        assertThat(meterRegistry.get("cache.refreshes").tag("trigger", "refresh-ahead").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void jitterSpreadsExpiryAroundTheConfiguredTtl() {
+        CachePolicy policy = new CachePolicy(Duration.ofMinutes(10), 0.1, Duration.ZERO, Duration.ZERO);
+        Instant now = Instant.now();
+
+        Instant earliest = now.plus(Duration.ofMinutes(9));
+        Instant latest = now.plus(Duration.ofMinutes(11));
+
+        List<Instant> expiries = Flux.range(0, 100).map(i -> policy.freshUntil(now)).sort().collectList().block();
+
+        assertThat(expiries).allSatisfy(expiry -> assertThat(expiry).isBetween(earliest, latest));
+        // 100 uniform draws over the 2 minute window all landing within 12 seconds of each other is vanishingly rare
+        assertThat(Duration.between(expiries.get(0), expiries.get(expiries.size() - 1)))
+                .isGreaterThan(Duration.between(earliest, latest).dividedBy(10));
+    }
+
+    private void givenEntry(String key, Instant freshUntil) {
+        when(cacheService.getEntry(eq(key), any()))
+                .thenReturn(Mono.just(new CacheEntry<>(List.of("cached"), "\"v1\"", null, freshUntil)));
+    }
+
+    private static Function<CacheEntry<String>, Flux<String>> refreshCounter(AtomicInteger refreshes) {
+        return stale -> Flux.defer(() -> {
+            refreshes.incrementAndGet();
+            return Flux.just("refreshed");
+        });
+    }
+}
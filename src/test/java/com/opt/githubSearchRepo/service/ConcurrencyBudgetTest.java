@@ -0,0 +1,76 @@
+package com.opt.githubSearchRepo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class ConcurrencyBudgetTest {
+    private final ConcurrencyBudget budget = new ConcurrencyBudget(new SimpleMeterRegistry(), 3);
+
+    @Test
+    void neverRunsMoreTasksThanPermits() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        Flux<Integer> tasks = Flux.range(0, 20)
+                .flatMap(i -> budget.withPermit(Mono.just(i)
+                        .doOnSubscribe(subscription -> peak.accumulateAndGet(running.incrementAndGet(), Math::max))
+                        .delayElement(Duration.ofMillis(20))
+                        .doOnTerminate(running::decrementAndGet)), 20);
+
+        StepVerifier.create(tasks)
+                .expectNextCount(20)
+                .verifyComplete();
+        assertTrue(peak.get() <= 3);
+        assertEquals(3, budget.availablePermits());
+    }
+
+    @Test
+    void waitersAreServedInArrivalOrder() {
+        Sinks.Empty<Void> gate = Sinks.empty();
+        List<Disposable> holders = List.of(
+                budget.withPermit(gate.asMono()).subscribe(),
+                budget.withPermit(gate.asMono()).subscribe(),
+                budget.withPermit(gate.asMono()).subscribe());
+
+        List<String> started = new CopyOnWriteArrayList<>();
+        Flux<Object> queued = Flux.merge(
+                budget.withPermit(Mono.fromRunnable(() -> started.add("first"))),
+                budget.withPermit(Mono.fromRunnable(() -> started.add("second"))));
+
+        StepVerifier.create(queued)
+                .then(() -> assertEquals(2, budget.waiting()))
+                .then(gate::tryEmitEmpty)
+                .verifyComplete();
+        assertEquals(List.of("first", "second"), started);
+        holders.forEach(Disposable::dispose);
+        assertEquals(3, budget.availablePermits());
+    }
+
+    @Test
+    void cancelledWaitersGiveBackTheirPlace() {
+        Sinks.Empty<Void> gate = Sinks.empty();
+        final Disposable holders = Flux.range(0, 3)
+                .flatMap(i -> budget.withPermit(gate.asMono()))
+                .subscribe();
+        Disposable cancelled = budget.withPermit(Mono.just("never")).subscribe();
+
+        assertEquals(1, budget.waiting());
+        cancelled.dispose();
+        assertEquals(0, budget.waiting());
+
+        holders.dispose();
+        assertEquals(3, budget.availablePermits());
+    }
+}
@@ -0,0 +1,110 @@
+package com.opt.githubSearchRepo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import com.opt.githubSearchRepo.exception.GithubApiException;
+import com.opt.githubSearchRepo.exception.UserNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@Slf4j
+class GithubApiModeComparisonTest {
+    private static final int REPOSITORIES = 40;
+    private static final int BRANCHES = 3;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GithubStubServer stubServer;
+    private CacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        stubServer = new GithubStubServer(REPOSITORIES, BRANCHES, Duration.ofMillis(20));
+        cacheService = mock(CacheService.class);
+        when(cacheService.getEntry(anyString(), any())).thenReturn(Mono.empty());
+        when(cacheService.cacheOnComplete(anyString(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        when(cacheService.cacheOnComplete(anyString(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.close();
+    }
+
+    @Test
+    void graphQlModeReturnsSameResultWithOneUpstreamCall() {
+        GithubTokenPool tokenPool = new GithubTokenPool(meterRegistry, List.of("token"), 0, Duration.ofSeconds(5));
+        GithubService rest = new GithubServiceImpl(WebClient.builder(), cacheService, cachingFetcher(),
+                new NoOpSnapshotStore(), tokenPool, new GithubClientMetrics(meterRegistry),
+                new AdaptiveConcurrencyLimiter(meterRegistry, 10, 1, 100, 0.7, 2.0), meterRegistry,
+                stubServer.baseUrl(), 4);
+        GithubService graphQl = new GithubGraphQlServiceImpl(WebClient.builder(), cacheService, cachingFetcher(),
+                new NoOpSnapshotStore(), tokenPool, new GithubClientMetrics(meterRegistry), stubServer.baseUrl());
+
+        long restStart = System.nanoTime();
+        List<RepositoryInfo> restResult = sorted(rest.getNonForkRepositories("octocat")
+                .collectList().block(TIMEOUT));
+        long restMillis = (System.nanoTime() - restStart) / 1_000_000;
+
+        long graphQlStart = System.nanoTime();
+        List<RepositoryInfo> graphQlResult = sorted(graphQl.getNonForkRepositories("octocat")
+                .collectList().block(TIMEOUT));
+        long graphQlMillis = (System.nanoTime() - graphQlStart) / 1_000_000;
+
+        log.info("REST: {} upstream calls in {} ms, GraphQL: {} upstream calls in {} ms",
+                stubServer.restCalls(), restMillis, stubServer.graphQlCalls(), graphQlMillis);
+        assertThat(graphQlResult).hasSize(REPOSITORIES).isEqualTo(restResult);
+        assertThat(stubServer.restCalls()).isEqualTo(1 + REPOSITORIES);
+        assertThat(stubServer.graphQlCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void graphQlErrorsFailTheFetchInsteadOfListingNoRepositories() {
+        SnapshotStore snapshotStore = mock(SnapshotStore.class);
+        when(snapshotStore.findRepositories(anyString())).thenReturn(Mono.empty());
+        GithubService graphQl = new GithubGraphQlServiceImpl(WebClient.builder(), cacheService, cachingFetcher(),
+                snapshotStore, new GithubTokenPool(meterRegistry, List.of("token"), 0, Duration.ofSeconds(5)),
+                new GithubClientMetrics(meterRegistry), stubServer.baseUrl());
+
+        StepVerifier.create(graphQl.getNonForkRepositories(GithubStubServer.MISSING_USER))
+                .verifyError(UserNotFoundException.class);
+        StepVerifier.create(graphQl.getNonForkRepositories(GithubStubServer.FAILING_USER))
+                .verifyError(GithubApiException.class);
+        verify(snapshotStore, never()).saveRepositories(anyString(), any());
+    }
+
+    private CachingFetcher cachingFetcher() {
+        CachePolicy policy = new CachePolicy(Duration.ofMinutes(10), 0, Duration.ZERO, Duration.ZERO);
+        return new CachingFetcher(cacheService,
+                new InFlightRequestRegistry(meterRegistry, Duration.ofSeconds(30)),
+                new CachePolicies(policy, policy), meterRegistry, Duration.ofSeconds(30), 2, 100);
+    }
+
+    private static List<RepositoryInfo> sorted(List<RepositoryInfo> repositories) {
+        return repositories.stream()
+                .map(repo -> new RepositoryInfo(repo.name(), repo.ownerLogin(), repo.branches().stream()
+                        .sorted(Comparator.comparing(BranchInfo::name))
+                        .toList(), repo.pushedAt()))
+                .sorted(Comparator.comparing(RepositoryInfo::name))
+                .toList();
+    }
+}
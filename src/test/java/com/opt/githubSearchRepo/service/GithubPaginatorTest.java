@@ -0,0 +1,81 @@
+package com.opt.githubSearchRepo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.opt.githubSearchRepo.dto.GitHubBranch;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class GithubPaginatorTest {
+    private static final String LAST_PAGE_LINK = "<https://api.github.com/repositories/1/branches?per_page=100&page=2>;"
+            + " rel=\"next\", <https://api.github.com/repositories/1/branches?per_page=100&page=4>; rel=\"last\"";
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Test
+    void lastPageIsParsedFromLinkHeader() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, LAST_PAGE_LINK);
+
+        assertThat(GithubPaginator.lastPage(headers, 1)).isEqualTo(4);
+        assertThat(GithubPaginator.lastPage(new HttpHeaders(), 3)).isEqualTo(3);
+    }
+
+    @Test
+    void remainingPagesAreFetchedConcurrentlyAndEmittedInOrder() {
+        GithubPaginator paginator = new GithubPaginator(stubClient(4), 2);
+
+        StepVerifier.create(paginator.fetchAll("/repos/{username}/{repoName}/branches",
+                                new Object[]{"octocat", "demo"}, GitHubBranch.class, null)
+                        .map(page -> page.items().get(0).name()))
+                .expectNext("branch-1", "branch-2", "branch-3", "branch-4")
+                .verifyComplete();
+
+        assertThat(maxInFlight.get()).isEqualTo(2);
+    }
+
+    @Test
+    void singlePageKeepsValidators() {
+        GithubPaginator paginator = new GithubPaginator(stubClient(1), 2);
+
+        StepVerifier.create(paginator.fetchAll("/users/{username}/repos", new Object[]{"octocat"},
+                        GitHubBranch.class, null))
+                .assertNext(page -> {
+                    assertThat(page.isOnlyPage()).isTrue();
+                    assertThat(page.etag()).isEqualTo("\"page-1\"");
+                })
+                .verifyComplete();
+    }
+
+    private WebClient stubClient(int lastPage) {
+        return WebClient.builder()
+                .exchangeFunction(request -> {
+                    List<String> pageParam = UriComponentsBuilder.fromUri(request.url()).build()
+                            .getQueryParams().get("page");
+                    int page = Integer.parseInt(pageParam.get(0));
+                    ClientResponse.Builder response = ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .header(HttpHeaders.ETAG, "\"page-" + page + "\"")
+                            .body("[{\"name\":\"branch-" + page + "\",\"commit\":{\"sha\":\"sha\"}}]");
+                    if (lastPage > 1) {
+                        response.header(HttpHeaders.LINK, LAST_PAGE_LINK.replace("page=4", "page=" + lastPage));
+                    }
+                    return Mono.fromSupplier(() -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                            .delayElement(Duration.ofMillis(50L * (lastPage - page + 1)))
+                            .doOnNext(ignored -> inFlight.decrementAndGet())
+                            .map(ignored -> response.build());
+                })
+                .build();
+    }
+}
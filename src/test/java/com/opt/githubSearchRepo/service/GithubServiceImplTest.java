@@ -0,0 +1,477 @@
+package com.opt.githubSearchRepo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import com.opt.githubSearchRepo.dto.UserRepositories;
+import com.opt.githubSearchRepo.repository.Snapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.blockhound.BlockHound;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+class GithubServiceImplTest {
+    private static final String REPOS_JSON = """
+            [{"name":"demo","owner":{"login":"octocat"},"fork":false,"pushed_at":"2024-06-01T12:00:00Z"},
+             {"name":"forked","owner":{"login":"octocat"},"fork":true}]""";
+    private static final String BRANCHES_JSON = """
+            [{"name":"main","commit":{"sha":"abc123"}}]""";
+    private static final String CACHED_BRANCHES_JSON = "[{\"name\":\"main\",\"commitSha\":\"abc123\"}]";
+    private static final Instant PUSHED_AT = Instant.parse("2024-06-01T12:00:00Z");
+
+    private ReactiveRedisTemplate<String, byte[]> redisTemplate;
+    private ReactiveHashOperations<String, String, byte[]> hashOperations;
+    private Map<String, HttpStatus> upstreamStatuses;
+    private Map<String, String> upstreamBodies;
+    private Map<String, Mono<Void>> upstreamHolds;
+    private Map<String, Long> upstreamResets;
+    private List<ClientRequest> upstreamRequests;
+    private SimpleMeterRegistry meterRegistry;
+    private SnapshotStore snapshotStore;
+    private AdaptiveConcurrencyLimiter fanOutLimiter;
+    private GithubServiceImpl githubService;
+
+    @BeforeAll
+    static void installBlockHound() {
+        BlockHound.install(builder -> builder
+                .allowBlockingCallsInside("ch.qos.logback.core.OutputStreamAppender", "writeBytes"));
+        // Workers started before instrumentation can die mid-retransform; start from fresh schedulers.
+        Schedulers.shutdownNow();
+        StepVerifier.setDefaultTimeout(Duration.ofSeconds(10));
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(ReactiveRedisTemplate.class);
+        hashOperations = mock(ReactiveHashOperations.class);
+        when(redisTemplate.<String, byte[]>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.multiGet(anyString(), anyList())).thenReturn(Mono.just(Arrays.asList(null, null, null,
+                null)));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(1L));
+        when(redisTemplate.convertAndSend(anyString(), any(byte[].class))).thenReturn(Mono.just(1L));
+        snapshotStore = mock(SnapshotStore.class);
+        when(snapshotStore.findRepositories(anyString())).thenReturn(Mono.empty());
+        when(snapshotStore.findBranches(anyString(), anyString())).thenReturn(Mono.empty());
+
+        upstreamStatuses = new ConcurrentHashMap<>();
+        upstreamBodies = new ConcurrentHashMap<>();
+        upstreamHolds = new ConcurrentHashMap<>();
+        upstreamResets = new ConcurrentHashMap<>();
+        upstreamRequests = new CopyOnWriteArrayList<>();
+        ExchangeStrategies strategies = ExchangeStrategies.withDefaults();
+        WebClient.Builder webClientBuilder = WebClient.builder()
+                .exchangeFunction(request -> {
+                    upstreamRequests.add(request);
+                    String path = request.url().getPath();
+                    HttpStatus status = upstreamStatuses.getOrDefault(path, HttpStatus.OK);
+                    ClientResponse.Builder response = ClientResponse.create(status, strategies)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .header(HttpHeaders.ETAG, "\"etag-" + path.hashCode() + "\"")
+                            .header(GithubTokenPool.RATE_LIMIT_LIMIT, "5000");
+                    Long reset = upstreamResets.get(path);
+                    if (reset == null) {
+                        response.header(GithubTokenPool.RATE_LIMIT_REMAINING, "4999");
+                    } else {
+                        response.header(GithubTokenPool.RATE_LIMIT_REMAINING, "0")
+                                .header(GithubTokenPool.RATE_LIMIT_RESET, String.valueOf(reset));
+                    }
+                    if (status == HttpStatus.OK) {
+                        response.body(upstreamBodies.getOrDefault(path,
+                                path.endsWith("/branches") ? BRANCHES_JSON : REPOS_JSON));
+                    }
+                    return Mono.just(response.build())
+                            .delaySubscription(upstreamHolds.getOrDefault(path, Mono.empty()))
+                            .publishOn(Schedulers.parallel());
+                });
+        meterRegistry = new SimpleMeterRegistry();
+        CachePolicy policy = new CachePolicy(Duration.ofMinutes(10), 0, Duration.ofMinutes(5), Duration.ofMinutes(1));
+        CachePolicies policies = new CachePolicies(policy, policy);
+        CacheService cacheService = new CacheService(redisTemplate, new CacheSerializer(meterRegistry, "smile", 4096),
+                meterRegistry, policies, Duration.ofHours(1), 100, Duration.ofMinutes(1), "github-cache-invalidation",
+                Schedulers.immediate(), Schedulers.boundedElastic());
+        CachingFetcher cachingFetcher = new CachingFetcher(cacheService,
+                new InFlightRequestRegistry(meterRegistry, Duration.ofSeconds(30)),
+                policies, meterRegistry, Duration.ofSeconds(30), 2, 100);
+        // Stubbed calls take a few microseconds, so any scheduling hiccup would read as a latency spike
+        fanOutLimiter = new AdaptiveConcurrencyLimiter(meterRegistry, 10, 1, 100, 0.7, Double.POSITIVE_INFINITY);
+        githubService = new GithubServiceImpl(webClientBuilder, cacheService, cachingFetcher, snapshotStore,
+                new GithubTokenPool(meterRegistry, List.of(), 0, Duration.ofSeconds(5)),
+                new GithubClientMetrics(meterRegistry), fanOutLimiter, meterRegistry, "https://api.github.com", 4);
+    }
+
+    @Test
+    void blockHoundDetectsBlockingCallsOnParallelThreads() {
+        StepVerifier.create(Mono.fromCallable(() -> {
+            Thread.sleep(1);
+            return "";
+        }).subscribeOn(Schedulers.parallel()))
+                .expectErrorMatches(e -> e.getMessage().contains("Blocking call"))
+                .verify();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cacheMissFetchesAndCachesWithoutBlocking() {
+        StepVerifier.create(githubService.getNonForkRepositories("octocat")
+                        .subscribeOn(Schedulers.parallel()))
+                .expectNext(new RepositoryInfo("demo", "octocat", List.of(new BranchInfo("main", "abc123")), PUSHED_AT))
+                .verifyComplete();
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("octocat-demo")), anyList());
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("repos-octocat")), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cacheHitIsServedWithoutUpstreamCallOrBlocking() {
+        givenCachedBranches(Instant.now().plusSeconds(60));
+
+        StepVerifier.create(githubService.getBranches("octocat", "demo")
+                        .subscribeOn(Schedulers.parallel()))
+                .expectNext(new BranchInfo("main", "abc123"))
+                .verifyComplete();
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), anyList());
+        assertThat(upstreamRequests).isEmpty();
+    }
+
+    @Test
+    void cachedBranchesAreServedWhileEveryFanOutPermitIsTaken() {
+        givenCachedBranches(Instant.now().plusSeconds(60));
+        Sinks.Empty<Void> gate = Sinks.empty();
+        Disposable holders = Flux.range(0, fanOutLimiter.currentLimit())
+                .flatMap(i -> fanOutLimiter.withPermit(gate.asMono()))
+                .subscribe();
+
+        StepVerifier.create(githubService.getBranches("octocat", "demo"))
+                .expectNext(new BranchInfo("main", "abc123"))
+                .verifyComplete();
+
+        assertThat(fanOutLimiter.waiting()).isZero();
+        holders.dispose();
+    }
+
+    @Test
+    void repeatedLookupIsServedFromLocalCache() {
+        givenCachedBranches(Instant.now().plusSeconds(60));
+
+        githubService.getBranches("octocat", "demo").blockLast();
+        StepVerifier.create(githubService.getBranches("octocat", "demo"))
+                .expectNext(new BranchInfo("main", "abc123"))
+                .verifyComplete();
+
+        verify(hashOperations, times(1)).multiGet(eq("octocat-demo"), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void staleEntryIsRevalidatedWithIfNoneMatchAndExtendedOnNotModified() {
+        givenCachedBranches(Instant.now().minus(Duration.ofMinutes(10)));
+        upstreamStatuses.put("/repos/octocat/demo/branches", HttpStatus.NOT_MODIFIED);
+
+        StepVerifier.create(githubService.getBranches("octocat", "demo")
+                        .subscribeOn(Schedulers.parallel()))
+                .expectNext(new BranchInfo("main", "abc123"))
+                .verifyComplete();
+
+        assertThat(upstreamRequests).singleElement()
+                .satisfies(request -> assertThat(request.headers().getIfNoneMatch()).containsExactly("\"v1\""));
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), eq(List.of("octocat-demo")),
+                argThat(args -> args.size() == 2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recentlyExpiredEntryIsServedWhileRevalidatedInBackground() {
+        givenCachedBranches(Instant.now().minusSeconds(1));
+        upstreamStatuses.put("/repos/octocat/demo/branches", HttpStatus.NOT_MODIFIED);
+
+        StepVerifier.create(githubService.getBranches("octocat", "demo")
+                        .subscribeOn(Schedulers.parallel()))
+                .expectNext(new BranchInfo("main", "abc123"))
+                .verifyComplete();
+
+        verify(redisTemplate, timeout(5000)).execute(any(RedisScript.class), eq(List.of("octocat-demo")),
+                argThat(args -> args.size() == 2));
+        assertThat(upstreamRequests).singleElement()
+                .satisfies(request -> assertThat(request.headers().getIfNoneMatch()).containsExactly("\"v1\""));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void redisMissIsServedFromStoredSnapshotAndCopiedBackToRedis() {
+        RepositoryInfo stored = new RepositoryInfo("demo", "octocat", List.of(new BranchInfo("main", "abc123")));
+        when(snapshotStore.findRepositories("octocat")).thenReturn(Mono.just(
+                new Snapshot<>(List.of(stored), "\"v1\"", null, Instant.now().minus(Duration.ofHours(2)))));
+
+        StepVerifier.create(githubService.getNonForkRepositories("octocat")
+                        .subscribeOn(Schedulers.parallel()))
+                .expectNext(stored)
+                .verifyComplete();
+
+        assertThat(upstreamRequests).isEmpty();
+        verify(redisTemplate, timeout(5000)).execute(any(RedisScript.class), eq(List.of("repos-octocat")),
+                anyList());
+    }
+
+    @Test
+    void callsWaitingForRateLimitBudgetGetTheirFullTimeoutOnceLetThrough() {
+        Instant start = Instant.now();
+        upstreamResets.put("/repos/octocat/spent/branches", start.plusSeconds(5).getEpochSecond());
+        upstreamHolds.put("/repos/octocat/demo/branches", Mono.delay(Duration.ofSeconds(2)).then());
+        githubService.getBranches("octocat", "spent").blockLast();
+
+        StepVerifier.create(githubService.getBranches("octocat", "demo"))
+                .expectNext(new BranchInfo("main", "abc123"))
+                .verifyComplete();
+
+        assertThat(Duration.between(start, Instant.now())).isGreaterThan(Duration.ofSeconds(5));
+        assertThat(meterRegistry.get("github.tokens.queued").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void fetchedListsAreWrittenBehindWithTheirValidators() {
+        githubService.getNonForkRepositories("octocat").blockLast();
+
+        verify(snapshotStore).saveBranches(eq("octocat"), eq("demo"), argThat(snapshot ->
+                snapshot.data().equals(List.of(new BranchInfo("main", "abc123"))) && snapshot.etag() != null));
+        verify(snapshotStore).saveRepositories(eq("octocat"), argThat(snapshot ->
+                snapshot.data().size() == 1 && snapshot.etag() != null));
+    }
+
+    @Test
+    void upstreamFailuresReachTheBulkSearchAsPerUserErrors() {
+        upstreamStatuses.put("/users/octocat/repos", HttpStatus.FORBIDDEN);
+        upstreamStatuses.put("/users/hubot/repos", HttpStatus.SERVICE_UNAVAILABLE);
+        BulkRepositorySearchService bulkService = new BulkRepositorySearchService(githubService,
+                new ConcurrencyBudget(meterRegistry, 2), 2, 10);
+
+        StepVerifier.create(bulkService.getNonForkRepositories(List.of("octocat", "hubot"))
+                        .collectMap(UserRepositories::username))
+                .assertNext(results -> {
+                    assertThat(results.get("octocat").repositories()).isNull();
+                    assertThat(results.get("octocat").error().status()).isEqualTo(403);
+                    assertThat(results.get("hubot").repositories()).isNull();
+                    assertThat(results.get("hubot").error().status()).isEqualTo(503);
+                })
+                .verifyComplete();
+
+        verify(snapshotStore, never()).saveRepositories(anyString(), any());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), anyList());
+    }
+
+    @Test
+    void refreshReusesBranchesOfRepositoriesWhosePushTimestampDidNotMove() {
+        givenCachedRepositories(PUSHED_AT);
+        givenCachedBranches(Instant.now().plusSeconds(60));
+
+        StepVerifier.create(githubService.getNonForkRepositories("octocat"))
+                .expectNext(new RepositoryInfo("demo", "octocat", List.of(new BranchInfo("main", "abc123")), PUSHED_AT))
+                .verifyComplete();
+
+        assertThat(upstreamRequests).extracting(request -> request.url().getPath())
+                .containsExactly("/users/octocat/repos");
+        assertThat(meterRegistry.get("github.sync.repositories").tag("result", "skipped").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void refreshRefetchesBranchesWhoseCacheEntryIsGoneEvenIfThePushTimestampDidNotMove() {
+        givenCachedRepositories(PUSHED_AT);
+
+        StepVerifier.create(githubService.getNonForkRepositories("octocat"))
+                .expectNext(new RepositoryInfo("demo", "octocat", List.of(new BranchInfo("main", "abc123")), PUSHED_AT))
+                .verifyComplete();
+
+        assertThat(upstreamRequests).extracting(request -> request.url().getPath())
+                .containsExactly("/users/octocat/repos", "/repos/octocat/demo/branches");
+        assertThat(meterRegistry.get("github.sync.repositories").tag("result", "refetched").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void branchFetchFailuresFailTheListingInsteadOfCachingItWithoutBranches() {
+        upstreamStatuses.put("/repos/octocat/demo/branches", HttpStatus.INTERNAL_SERVER_ERROR);
+
+        StepVerifier.create(githubService.getNonForkRepositories("octocat"))
+                .verifyError(WebClientResponseException.InternalServerError.class);
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), anyList());
+        verify(snapshotStore, never()).saveRepositories(anyString(), any());
+        verify(snapshotStore, never()).saveBranches(anyString(), anyString(), any());
+    }
+
+    @Test
+    void refreshRefetchesBranchesOfRepositoriesThatWerePushedTo() {
+        givenCachedRepositories(PUSHED_AT.minusSeconds(60));
+        givenCachedBranches(Instant.now().plusSeconds(60));
+
+        StepVerifier.create(githubService.getNonForkRepositories("octocat"))
+                .expectNext(new RepositoryInfo("demo", "octocat", List.of(new BranchInfo("main", "abc123")), PUSHED_AT))
+                .verifyComplete();
+
+        // The cached branch list is still fresh but predates the push, so it is revalidated rather than reused
+        assertThat(upstreamRequests).extracting(request -> request.url().getPath())
+                .containsExactly("/users/octocat/repos", "/repos/octocat/demo/branches");
+        assertThat(upstreamRequests.get(1).headers().getIfNoneMatch()).containsExactly("\"v1\"");
+        assertThat(meterRegistry.get("github.sync.repositories").tag("result", "refetched").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void queriesWithoutBranchesOnlyListTheRepositories() {
+        StepVerifier.create(githubService.getNonForkRepositories("octocat",
+                        RepositoryQuery.of("name,pushedAt", null, null, null, null)))
+                .expectNext(new RepositoryInfo("demo", null, null, PUSHED_AT))
+                .verifyComplete();
+
+        assertThat(upstreamRequests).extracting(request -> request.url().getPath())
+                .containsExactly("/users/octocat/repos");
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("repo-list:octocat")), anyList());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), eq(List.of("repos-octocat")), anyList());
+    }
+
+    @Test
+    void repositoryListsWithoutBranchesAreCachedAndSharedByLaterQueries() {
+        RepositoryQuery names = RepositoryQuery.of("name", null, null, null, null);
+        githubService.getNonForkRepositories("octocat", names).blockLast();
+
+        StepVerifier.create(githubService.getNonForkRepositories("octocat",
+                        RepositoryQuery.of("name", null, "-name", 0, 1)))
+                .expectNext(new RepositoryInfo("demo", null, null, null))
+                .verifyComplete();
+
+        assertThat(upstreamRequests).hasSize(1);
+        verify(snapshotStore, times(1)).findRepositories("octocat");
+    }
+
+    @Test
+    void pagedQueriesFetchBranchesOnlyForRepositoriesOnThePage() {
+        upstreamBodies.put("/users/octocat/repos", Stream.of("gamma", "alpha", "delta", "beta")
+                .map(name -> "{\"name\":\"" + name + "\",\"owner\":{\"login\":\"octocat\"},\"fork\":false}")
+                .collect(Collectors.joining(",", "[", "]")));
+
+        StepVerifier.create(githubService.getNonForkRepositories("octocat",
+                        RepositoryQuery.of(null, null, null, 1, 2)))
+                .expectNext(new RepositoryInfo("beta", "octocat", List.of(new BranchInfo("main", "abc123")), null))
+                .expectNext(new RepositoryInfo("delta", "octocat", List.of(new BranchInfo("main", "abc123")), null))
+                .verifyComplete();
+
+        assertThat(upstreamRequests).extracting(request -> request.url().getPath())
+                .containsExactlyInAnyOrder("/users/octocat/repos", "/repos/octocat/beta/branches",
+                        "/repos/octocat/delta/branches");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listsAreCachedEvenWhenTheOnlyClientLeavesMidStream() {
+        upstreamBodies.put("/users/octocat/repos", Stream.of("alpha", "beta")
+                .map(name -> "{\"name\":\"" + name + "\",\"owner\":{\"login\":\"octocat\"},\"fork\":false}")
+                .collect(Collectors.joining(",", "[", "]")));
+        Sinks.Empty<Void> betaBranches = Sinks.empty();
+        upstreamHolds.put("/repos/octocat/beta/branches", betaBranches.asMono());
+
+        StepVerifier.create(githubService.getNonForkRepositories("octocat").take(1))
+                .expectNext(new RepositoryInfo("alpha", "octocat", List.of(new BranchInfo("main", "abc123")), null))
+                .verifyComplete();
+        betaBranches.tryEmitEmpty();
+
+        verify(redisTemplate, timeout(5000)).execute(any(RedisScript.class), eq(List.of("repos-octocat")),
+                anyList());
+        verify(snapshotStore, timeout(5000)).saveRepositories(eq("octocat"), argThat(snapshot ->
+                snapshot.data().size() == 2));
+    }
+
+    @Test
+    void queriesAreAppliedToAFreshCachedList() {
+        givenCached("repos-octocat", "[{\"name\":\"demo\",\"ownerLogin\":\"octocat\",\"branches\":"
+                + "[{\"name\":\"main\",\"commitSha\":\"cached\"}]}]", "\"v0\"", Instant.now().plusSeconds(60));
+
+        StepVerifier.create(githubService.getNonForkRepositories("octocat",
+                        RepositoryQuery.of("name", null, null, null, 1)))
+                .expectNext(new RepositoryInfo("demo", null, null, null))
+                .verifyComplete();
+
+        assertThat(upstreamRequests).isEmpty();
+    }
+
+    @Test
+    void upstreamCallsAndCacheLookupsAreRecordedPerEndpointAndFamily() {
+        githubService.getNonForkRepositories("octocat").blockLast();
+
+        assertThat(meterRegistry.get("github.client.requests")
+                .tags("endpoint", "/users/{username}/repos", "status", "200").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("github.client.requests")
+                .tags("endpoint", "/repos/{username}/{repoName}/branches", "status", "200").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("github.ratelimit.remaining").tags("token", "anonymous", "resource", "core")
+                .gauge().value()).isEqualTo(4999);
+        assertThat(meterRegistry.get("cache.lookups").tags("cache", "repositories", "result", "miss").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("cache.lookups").tags("cache", "branches", "result", "miss").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("github.fanout.in-flight").gauge().value()).isZero();
+        assertThat(meterRegistry.get("github.fanout.limit").gauge().value()).isEqualTo(10);
+    }
+
+    private void givenCachedBranches(Instant freshUntil) {
+        givenCached("octocat-demo", CACHED_BRANCHES_JSON, "\"v1\"", freshUntil);
+    }
+
+    private void givenCachedRepositories(Instant pushedAt) {
+        givenCached("repos-octocat", "[{\"name\":\"demo\",\"ownerLogin\":\"octocat\",\"branches\":"
+                + "[{\"name\":\"main\",\"commitSha\":\"cached\"}],\"pushedAt\":\"" + pushedAt + "\"}]",
+                "\"v0\"", Instant.now().minus(Duration.ofMinutes(10)));
+    }
+
+    private void givenCached(String key, String json, String etag, Instant freshUntil) {
+        when(hashOperations.multiGet(eq(key), anyList())).thenReturn(Mono.just(Stream.of(
+                        json, etag, "", String.valueOf(freshUntil.toEpochMilli()))
+                .map(value -> value.getBytes(StandardCharsets.UTF_8))
+                .toList())
+                .publishOn(Schedulers.parallel()));
+    }
+}
@@ -0,0 +1,139 @@
+package com.opt.githubSearchRepo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+class GithubStubServer implements AutoCloseable {
+    // GraphQL answers for these logins carry a NOT_FOUND error, or errors without any data
+    static final String MISSING_USER = "ghost";
+    static final String FAILING_USER = "broken";
+    private static final String PUSHED_AT = "2024-06-01T12:00:00Z";
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int repositories;
+    private final int branchesPerRepository;
+    private final Duration latency;
+    private final AtomicInteger restCalls = new AtomicInteger();
+    private final AtomicInteger graphQlCalls = new AtomicInteger();
+    private final DisposableServer server;
+
+    GithubStubServer(int repositories, int branchesPerRepository, Duration latency) {
+        this.repositories = repositories;
+        this.branchesPerRepository = branchesPerRepository;
+        this.latency = latency;
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/users/{user}/repos", (request, response) -> {
+                            restCalls.incrementAndGet();
+                            return respond(response, restRepositories(request.param("user")));
+                        })
+                        .get("/repos/{user}/{repo}/branches", (request, response) -> {
+                            restCalls.incrementAndGet();
+                            return respond(response, branches(false));
+                        })
+                        .post("/graphql", (request, response) -> {
+                            graphQlCalls.incrementAndGet();
+                            return request.receive().aggregate().asString()
+                                    .map(this::graphQl)
+                                    .flatMap(body -> respond(response, body));
+                        }))
+                .bindNow();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    int restCalls() {
+        return restCalls.get();
+    }
+
+    int graphQlCalls() {
+        return graphQlCalls.get();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> respond(HttpServerResponse response, Object body) {
+        return Mono.delay(latency)
+                .then(Mono.fromCallable(() -> objectMapper.writeValueAsString(body)))
+                .flatMap(json -> response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .sendString(Mono.just(json))
+                        .then());
+    }
+
+    private List<Map<String, Object>> restRepositories(String user) {
+        return IntStream.range(0, repositories)
+                .mapToObj(i -> Map.<String, Object>of("name", "repo-" + i, "owner", Map.of("login", user),
+                        "fork", false, "pushed_at", pushedAt(i)))
+                .toList();
+    }
+
+    private List<Map<String, Object>> branches(boolean graphQl) {
+        return IntStream.range(0, branchesPerRepository)
+                .mapToObj(i -> graphQl
+                        ? Map.<String, Object>of("name", "branch-" + i, "target", Map.of("oid", "sha-" + i))
+                        : Map.<String, Object>of("name", "branch-" + i, "commit", Map.of("sha", "sha-" + i)))
+                .toList();
+    }
+
+    private Map<String, Object> graphQl(String body) {
+        JsonNode request;
+        try {
+            request = objectMapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+        JsonNode variables = request.path("variables");
+        if (request.path("query").asText().contains("repositoryOwner")) {
+            String login = variables.path("login").asText();
+            if (MISSING_USER.equals(login)) {
+                return Map.of("data", Collections.singletonMap("repositoryOwner", null), "errors", List.of(Map.of(
+                        "type", "NOT_FOUND", "message", "Could not resolve to a RepositoryOwner")));
+            }
+            if (FAILING_USER.equals(login)) {
+                return Map.of("errors", List.of(Map.of("message", "Something went wrong")));
+            }
+            List<Map<String, Object>> nodes = new ArrayList<>();
+            for (int i = 0; i < repositories; i++) {
+                nodes.add(graphQlRepository(login, "repo-" + i, pushedAt(i)));
+            }
+            return Map.of("data", Map.of("repositoryOwner", Map.of("repositories",
+                    Map.of("pageInfo", lastPage(), "nodes", nodes))));
+        }
+        return Map.of("data", Map.of("repository",
+                graphQlRepository(variables.path("owner").asText(), variables.path("name").asText(), PUSHED_AT)));
+    }
+
+    private Map<String, Object> graphQlRepository(String login, String name, String pushedAt) {
+        return Map.of("name", name, "owner", Map.of("login", login), "pushedAt", pushedAt,
+                "refs", Map.of("pageInfo", lastPage(), "nodes", branches(true)));
+    }
+
+    private static String pushedAt(int repository) {
+        return Instant.parse(PUSHED_AT).minusSeconds(repository).toString();
+    }
+
+    private static Map<String, Object> lastPage() {
+        return Map.of("hasNextPage", false);
+    }
+}
@@ -0,0 +1,115 @@
+package com.opt.githubSearchRepo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.opt.githubSearchRepo.exception.GithubRateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class GithubTokenPoolTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+
+    @Test
+    void callsAreRoutedToTheTokenWithTheMostBudgetLeft() {
+        long reset = Instant.now().plusSeconds(3600).getEpochSecond();
+        WebClient client = client(new GithubTokenPool(meterRegistry, List.of("low", "high"), 0, Duration.ZERO),
+                Map.of("Bearer low", rateLimited(HttpStatus.OK, 100, reset),
+                        "Bearer high", rateLimited(HttpStatus.OK, 4000, reset)));
+
+        for (int i = 0; i < 5; i++) {
+            call(client).block();
+        }
+
+        // Unused tokens are probed first; after that the token with the larger budget takes every call
+        assertThat(authorizations).containsExactly("Bearer low", "Bearer high", "Bearer high", "Bearer high",
+                "Bearer high");
+        assertThat(meterRegistry.get("github.ratelimit.remaining").tags("token", "token-2", "resource", "core")
+                .gauge().value()).isEqualTo(4000);
+    }
+
+    @Test
+    void callsAreShedUpFrontWhenBudgetOnlyReturnsAfterMaxWait() {
+        long reset = Instant.now().plusSeconds(3600).getEpochSecond();
+        WebClient client = client(new GithubTokenPool(meterRegistry, List.of("only"), 0, Duration.ofSeconds(5)),
+                Map.of("Bearer only", rateLimited(HttpStatus.OK, 0, reset)));
+
+        call(client).block();
+
+        StepVerifier.create(call(client))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOf(GithubRateLimitExceededException.class)
+                        .extracting(ex -> ((GithubRateLimitExceededException) ex).getRetryAfter())
+                        .matches(retryAfter -> retryAfter.compareTo(Duration.ofMinutes(59)) > 0))
+                .verify();
+        assertThat(authorizations).hasSize(1);
+        assertThat(meterRegistry.get("github.tokens.shed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void callsWaitForTheWindowToResetWhenItIsWithinMaxWait() {
+        long reset = Instant.now().plusSeconds(2).getEpochSecond();
+        WebClient client = client(new GithubTokenPool(meterRegistry, List.of(), 0, Duration.ofSeconds(5)),
+                Map.of("", rateLimited(HttpStatus.OK, 0, reset)));
+
+        call(client).block();
+
+        StepVerifier.create(call(client))
+                .expectNext(HttpStatus.OK)
+                .verifyComplete();
+        assertThat(authorizations).containsExactly("", "");
+        assertThat(meterRegistry.get("github.tokens.queued").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void secondaryRateLimitRetryAfterBlocksTheToken() {
+        long reset = Instant.now().plusSeconds(3600).getEpochSecond();
+        ClientResponse.Builder backOff = rateLimited(HttpStatus.FORBIDDEN, 4000, reset)
+                .header(HttpHeaders.RETRY_AFTER, "120");
+        WebClient client = client(new GithubTokenPool(meterRegistry, List.of("only"), 0, Duration.ofSeconds(5)),
+                Map.of("Bearer only", backOff));
+
+        StepVerifier.create(call(client))
+                .expectNext(HttpStatus.FORBIDDEN)
+                .verifyComplete();
+        StepVerifier.create(call(client))
+                .expectError(GithubRateLimitExceededException.class)
+                .verify();
+        assertThat(authorizations).hasSize(1);
+    }
+
+    private WebClient client(GithubTokenPool pool, Map<String, ClientResponse.Builder> responses) {
+        return WebClient.builder()
+                .exchangeFunction(request -> {
+                    String authorization = request.headers().getFirst(HttpHeaders.AUTHORIZATION);
+                    authorizations.add(authorization == null ? "" : authorization);
+                    return Mono.just(responses.get(authorizations.get(authorizations.size() - 1)).build());
+                })
+                .filter(pool)
+                .build();
+    }
+
+    private static Mono<HttpStatusCode> call(WebClient client) {
+        return client.get()
+                .uri("https://api.github.com/users/octocat/repos")
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()));
+    }
+
+    private static ClientResponse.Builder rateLimited(HttpStatus status, long remaining, long reset) {
+        return ClientResponse.create(status)
+                .header(GithubTokenPool.RATE_LIMIT_LIMIT, "5000")
+                .header(GithubTokenPool.RATE_LIMIT_REMAINING, String.valueOf(remaining))
+                .header(GithubTokenPool.RATE_LIMIT_RESET, String.valueOf(reset));
+    }
+}
@@ -0,0 +1,104 @@
+package com.opt.githubSearchRepo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class InFlightRequestRegistryTest {
+    private static final Duration GRACE = Duration.ofMillis(200);
+
+    private SimpleMeterRegistry meterRegistry;
+    private InFlightRequestRegistry registry;
+    private AtomicInteger subscriptions;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new InFlightRequestRegistry(meterRegistry, GRACE);
+        subscriptions = new AtomicInteger();
+    }
+
+    @Test
+    void concurrentCallersShareOneUpstreamSubscription() {
+        Sinks.Many<String> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        Flux<String> first = registry.join("repos-octocat", () -> countSubscriptions(upstream.asFlux()));
+        Flux<String> second = registry.join("repos-octocat", () -> countSubscriptions(upstream.asFlux()));
+
+        StepVerifier.create(Flux.merge(first, second))
+                .then(() -> {
+                    upstream.tryEmitNext("demo");
+                    upstream.tryEmitComplete();
+                })
+                .expectNext("demo", "demo")
+                .verifyComplete();
+
+        assertThat(subscriptions).hasValue(1);
+        assertThat(meterRegistry.counter("github.requests.coalesced").count()).isEqualTo(1.0);
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void entryIsReleasedOnError() {
+        StepVerifier.create(registry.join("octocat-demo",
+                        () -> Flux.<String>error(new IllegalStateException("boom"))))
+                .verifyError(IllegalStateException.class);
+
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void entryIsReleasedOnceAllCallersHaveLeftForTheGracePeriod() {
+        StepVerifier.create(registry.join("octocat-demo", () -> Flux.<String>never()))
+                .expectSubscription()
+                .then(() -> assertThat(registry.size()).isEqualTo(1))
+                .thenCancel()
+                .verify(Duration.ofSeconds(1));
+
+        assertThat(registry.size()).isEqualTo(1);
+        Mono.delay(GRACE.multipliedBy(3)).block();
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void fetchesAbandonedByEveryCallerStillCompleteAndAreSharedMeanwhile() {
+        Sinks.Many<String> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        AtomicBoolean completed = new AtomicBoolean();
+        StepVerifier.create(registry.join("repos-octocat", () -> countSubscriptions(upstream.asFlux())
+                        .doOnComplete(() -> completed.set(true))))
+                .then(() -> upstream.tryEmitNext("hello"))
+                .expectNext("hello")
+                .thenCancel()
+                .verify(Duration.ofSeconds(1));
+
+        upstream.tryEmitNext("world");
+        StepVerifier.create(registry.join("repos-octocat", () -> countSubscriptions(Flux.just("refetched"))))
+                .expectNext("hello", "world")
+                .then(upstream::tryEmitComplete)
+                .verifyComplete();
+
+        assertThat(completed).isTrue();
+        assertThat(subscriptions).hasValue(1);
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void laterCallersStartANewRequestAfterCompletion() {
+        registry.join("octocat-demo", () -> countSubscriptions(Flux.just("main"))).blockLast();
+        registry.join("octocat-demo", () -> countSubscriptions(Flux.just("main"))).blockLast();
+
+        assertThat(subscriptions).hasValue(2);
+    }
+
+    private Flux<String> countSubscriptions(Flux<String> source) {
+        return source.doOnSubscribe(subscription -> subscriptions.incrementAndGet());
+    }
+}
@@ -0,0 +1,71 @@
+package com.opt.githubSearchRepo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.opt.githubSearchRepo.dto.BranchInfo;
+import com.opt.githubSearchRepo.dto.RepositoryInfo;
+import com.opt.githubSearchRepo.exception.InvalidRequestException;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class RepositoryQueryTest {
+    private static final RepositoryInfo ALPHA = new RepositoryInfo("alpha", "octocat",
+            List.of(new BranchInfo("main", "a1"), new BranchInfo("feature/x", "a2")),
+            Instant.parse("2024-01-01T00:00:00Z"));
+    private static final RepositoryInfo BETA = new RepositoryInfo("beta", "octocat",
+            List.of(new BranchInfo("feature/y", "b1")), Instant.parse("2024-03-01T00:00:00Z"));
+    private static final RepositoryInfo GAMMA = new RepositoryInfo("gamma", "octocat", List.of(), null);
+
+    @Test
+    void noParametersLeaveTheListUntouched() {
+        RepositoryQuery query = RepositoryQuery.of(null, null, null, null, null);
+
+        assertThat(query.isUnrestricted()).isTrue();
+        assertThat(query.selects(RepositoryQuery.BRANCHES)).isTrue();
+        StepVerifier.create(query.apply(Flux.just(GAMMA, ALPHA)))
+                .expectNext(GAMMA, ALPHA)
+                .verifyComplete();
+    }
+
+    @Test
+    void fieldsLeftOutAreDropped() {
+        RepositoryQuery query = RepositoryQuery.of("name, pushedAt", null, null, null, null);
+
+        assertThat(query.selects(RepositoryQuery.BRANCHES)).isFalse();
+        assertThat(query.project(ALPHA)).isEqualTo(new RepositoryInfo("alpha", null, null, ALPHA.pushedAt()));
+    }
+
+    @Test
+    void branchesAreFilteredByPrefix() {
+        RepositoryQuery query = RepositoryQuery.of(null, "feature/", null, null, null);
+
+        assertThat(query.project(ALPHA).branches()).containsExactly(new BranchInfo("feature/x", "a2"));
+    }
+
+    @Test
+    void pagesAreTakenInNameOrderUnlessSortedOtherwise() {
+        StepVerifier.create(RepositoryQuery.of(null, null, null, 1, 1).apply(Flux.just(GAMMA, BETA, ALPHA)))
+                .expectNext(BETA)
+                .verifyComplete();
+        StepVerifier.create(RepositoryQuery.of(null, null, "-pushedAt", 0, 2).apply(Flux.just(GAMMA, ALPHA, BETA)))
+                .expectNext(BETA, ALPHA)
+                .verifyComplete();
+    }
+
+    @Test
+    void unknownFieldsSortsAndInvalidPagesAreRejected() {
+        assertThatThrownBy(() -> RepositoryQuery.of("name,stars", null, null, null, null))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("stars");
+        assertThatThrownBy(() -> RepositoryQuery.of(null, null, "ownerLogin", null, null))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> RepositoryQuery.of(null, null, null, -1, null))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> RepositoryQuery.of(null, null, null, null, 0))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+}